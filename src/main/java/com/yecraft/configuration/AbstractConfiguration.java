@@ -1,7 +1,9 @@
 package com.yecraft.configuration;
 
+import org.bukkit.configuration.ConfigPath;
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.ConfigurationVisitor;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -14,11 +16,15 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.stream.Stream;
 
 public abstract class AbstractConfiguration implements IConfiguration {
 
-    private FileConfiguration configuration;
+    private volatile FileConfiguration configuration;
 
     public AbstractConfiguration(FileConfiguration configuration) {
         this.configuration = configuration;
@@ -37,6 +43,31 @@ public abstract class AbstractConfiguration implements IConfiguration {
         return configuration.getValues(deep);
     }
 
+    @Override
+    public @NotNull Set<String> getKeysView(boolean deep) {
+        return configuration.getKeysView(deep);
+    }
+
+    @Override
+    public @NotNull Map<String, Object> getValuesView(boolean deep) {
+        return configuration.getValuesView(deep);
+    }
+
+    @Override
+    public boolean walk(@NotNull ConfigurationVisitor visitor, boolean deep) {
+        return configuration.walk(visitor, deep);
+    }
+
+    @Override
+    public @NotNull Stream<Map.Entry<String, Object>> stream(boolean deep) {
+        return configuration.stream(deep);
+    }
+
+    @Override
+    public @NotNull Stream<Map.Entry<String, Object>> parallelStream(boolean deep) {
+        return configuration.parallelStream(deep);
+    }
+
     @Override
     public boolean contains(@NotNull String path) {
         return configuration.contains(path);
@@ -47,11 +78,21 @@ public abstract class AbstractConfiguration implements IConfiguration {
         return configuration.contains(path, ignoreDefault);
     }
 
+    @Override
+    public boolean contains(@NotNull ConfigPath path) {
+        return configuration.contains(path);
+    }
+
     @Override
     public boolean isSet(@NotNull String path) {
         return configuration.isSet(path);
     }
 
+    @Override
+    public boolean isSet(@NotNull ConfigPath path) {
+        return configuration.isSet(path);
+    }
+
     @Override
     public @NotNull Optional<String> getCurrentPath() {
         String currentPath = configuration.getCurrentPath();
@@ -88,11 +129,68 @@ public abstract class AbstractConfiguration implements IConfiguration {
         return Optional.ofNullable(object);
     }
 
+    @Override
+    public @NotNull Optional<Object> get(@NotNull ConfigPath path) {
+        Object object = configuration.get(path);
+        return Optional.ofNullable(object);
+    }
+
+    @Override
+    public @NotNull Optional<Object> get(@NotNull ConfigPath path, @Nullable Object def) {
+        Object object = configuration.get(path, def);
+        return Optional.ofNullable(object);
+    }
+
     @Override
     public void set(@NotNull String path, @Nullable Object value) {
         configuration.set(path, value);
     }
 
+    @Override
+    public void set(@NotNull String path, int value) {
+        configuration.set(path, value);
+    }
+
+    @Override
+    public void set(@NotNull String path, long value) {
+        configuration.set(path, value);
+    }
+
+    @Override
+    public void set(@NotNull String path, double value) {
+        configuration.set(path, value);
+    }
+
+    @Override
+    public void set(@NotNull String path, boolean value) {
+        configuration.set(path, value);
+    }
+
+    @Override
+    public void set(@NotNull String path, float value) {
+        configuration.set(path, value);
+    }
+
+    @Override
+    public void set(@NotNull String path, short value) {
+        configuration.set(path, value);
+    }
+
+    @Override
+    public void set(@NotNull String path, byte value) {
+        configuration.set(path, value);
+    }
+
+    @Override
+    public void set(@NotNull String path, char value) {
+        configuration.set(path, value);
+    }
+
+    @Override
+    public void set(@NotNull ConfigPath path, @Nullable Object value) {
+        configuration.set(path, value);
+    }
+
     @Override
     public @NotNull ConfigurationSection createSection(@NotNull String path) {
         return configuration.createSection(path);
@@ -115,6 +213,18 @@ public abstract class AbstractConfiguration implements IConfiguration {
         return Optional.ofNullable(string);
     }
 
+    @Override
+    public @NotNull Optional<String> getString(@NotNull ConfigPath path) {
+        String string = configuration.getString(path);
+        return Optional.ofNullable(string);
+    }
+
+    @Override
+    public @NotNull Optional<String> getString(@NotNull ConfigPath path, @Nullable String def) {
+        String string = configuration.getString(path, def);
+        return Optional.ofNullable(string);
+    }
+
     @Override
     public boolean isString(@NotNull String path) {
         return configuration.isString(path);
@@ -122,8 +232,8 @@ public abstract class AbstractConfiguration implements IConfiguration {
 
     @Override
     public @NotNull Optional<Integer> getInt(@NotNull String path) {
-        int integer = configuration.getInt(path);
-        if (integer != 0) return Optional.of(integer);
+        OptionalInt integer = configuration.getOptionalInt(path);
+        if (integer.isPresent()) return Optional.of(integer.getAsInt());
         return Optional.empty();
     }
 
@@ -132,6 +242,28 @@ public abstract class AbstractConfiguration implements IConfiguration {
         return configuration.getInt(path, def);
     }
 
+    @Override
+    public @NotNull Optional<Integer> getInt(@NotNull ConfigPath path) {
+        OptionalInt integer = configuration.getOptionalInt(path);
+        if (integer.isPresent()) return Optional.of(integer.getAsInt());
+        return Optional.empty();
+    }
+
+    @Override
+    public int getInt(@NotNull ConfigPath path, int def) {
+        return configuration.getInt(path, def);
+    }
+
+    @Override
+    public @NotNull OptionalInt getOptionalInt(@NotNull String path) {
+        return configuration.getOptionalInt(path);
+    }
+
+    @Override
+    public @NotNull OptionalInt getOptionalInt(@NotNull ConfigPath path) {
+        return configuration.getOptionalInt(path);
+    }
+
     @Override
     public boolean isInt(@NotNull String path) {
         return configuration.isInt(path);
@@ -147,6 +279,16 @@ public abstract class AbstractConfiguration implements IConfiguration {
         return configuration.getBoolean(path, def);
     }
 
+    @Override
+    public boolean getBoolean(@NotNull ConfigPath path) {
+        return configuration.getBoolean(path);
+    }
+
+    @Override
+    public boolean getBoolean(@NotNull ConfigPath path, boolean def) {
+        return configuration.getBoolean(path, def);
+    }
+
     @Override
     public boolean isBoolean(@NotNull String path) {
         return configuration.isBoolean(path);
@@ -154,8 +296,8 @@ public abstract class AbstractConfiguration implements IConfiguration {
 
     @Override
     public @NotNull Optional<Double> getDouble(@NotNull String path) {
-        double number = configuration.getDouble(path);
-        if (number != 0) return Optional.of(number);
+        OptionalDouble number = configuration.getOptionalDouble(path);
+        if (number.isPresent()) return Optional.of(number.getAsDouble());
         return Optional.empty();
     }
 
@@ -164,6 +306,28 @@ public abstract class AbstractConfiguration implements IConfiguration {
         return configuration.getDouble(path, def);
     }
 
+    @Override
+    public @NotNull Optional<Double> getDouble(@NotNull ConfigPath path) {
+        OptionalDouble number = configuration.getOptionalDouble(path);
+        if (number.isPresent()) return Optional.of(number.getAsDouble());
+        return Optional.empty();
+    }
+
+    @Override
+    public double getDouble(@NotNull ConfigPath path, double def) {
+        return configuration.getDouble(path, def);
+    }
+
+    @Override
+    public @NotNull OptionalDouble getOptionalDouble(@NotNull String path) {
+        return configuration.getOptionalDouble(path);
+    }
+
+    @Override
+    public @NotNull OptionalDouble getOptionalDouble(@NotNull ConfigPath path) {
+        return configuration.getOptionalDouble(path);
+    }
+
     @Override
     public boolean isDouble(@NotNull String path) {
         return configuration.isDouble(path);
@@ -171,8 +335,8 @@ public abstract class AbstractConfiguration implements IConfiguration {
 
     @Override
     public @NotNull Optional<Long> getLong(@NotNull String path) {
-        long number = configuration.getLong(path);
-        if (number != 0) return Optional.of(number);
+        OptionalLong number = configuration.getOptionalLong(path);
+        if (number.isPresent()) return Optional.of(number.getAsLong());
         return Optional.empty();
     }
 
@@ -181,6 +345,28 @@ public abstract class AbstractConfiguration implements IConfiguration {
         return configuration.getLong(path, def);
     }
 
+    @Override
+    public @NotNull Optional<Long> getLong(@NotNull ConfigPath path) {
+        OptionalLong number = configuration.getOptionalLong(path);
+        if (number.isPresent()) return Optional.of(number.getAsLong());
+        return Optional.empty();
+    }
+
+    @Override
+    public long getLong(@NotNull ConfigPath path, long def) {
+        return configuration.getLong(path, def);
+    }
+
+    @Override
+    public @NotNull OptionalLong getOptionalLong(@NotNull String path) {
+        return configuration.getOptionalLong(path);
+    }
+
+    @Override
+    public @NotNull OptionalLong getOptionalLong(@NotNull ConfigPath path) {
+        return configuration.getOptionalLong(path);
+    }
+
     @Override
     public boolean isLong(@NotNull String path) {
         return configuration.isLong(path);
@@ -198,6 +384,18 @@ public abstract class AbstractConfiguration implements IConfiguration {
         return Optional.ofNullable(list);
     }
 
+    @Override
+    public @NotNull Optional<List<?>> getList(@NotNull ConfigPath path) {
+        List<?> list = configuration.getList(path);
+        return Optional.ofNullable(list);
+    }
+
+    @Override
+    public @NotNull Optional<List<?>> getList(@NotNull ConfigPath path, @Nullable List<?> def) {
+        List<?> list = configuration.getList(path, def);
+        return Optional.ofNullable(list);
+    }
+
     @Override
     public boolean isList(@NotNull String path) {
         return configuration.isList(path);
@@ -303,6 +501,12 @@ public abstract class AbstractConfiguration implements IConfiguration {
         return Optional.ofNullable(section);
     }
 
+    @Override
+    public @NotNull Optional<ConfigurationSection> getConfigurationSection(@NotNull ConfigPath path) {
+        ConfigurationSection section = configuration.getConfigurationSection(path);
+        return Optional.ofNullable(section);
+    }
+
     @Override
     public boolean isConfigurationSection(@NotNull String path) {
         return configuration.isConfigurationSection(path);
@@ -2,24 +2,45 @@ package com.yecraft.configuration;
 
 import org.apache.commons.lang3.Validate;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.SaveMode;
+import org.bukkit.configuration.file.WriteBehindSaver;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 public abstract class Configuration extends AbstractConfiguration implements DefaultConfig{
 
+    /**
+     * Runs the asynchronous operations of configurations on virtual threads
+     * if the runtime has them, or on daemon threads otherwise
+     */
+    private static final Executor DEFAULT_EXECUTOR = createDefaultExecutor();
+
     private final String version;
     private final Logger logger;
     private final File file;
+    private SaveMode saveMode = SaveMode.DIRECT;
+    private volatile Executor executor = DEFAULT_EXECUTOR;
+    private volatile WriteBehindSaver saver;
+    /**
+     * The last asynchronous operation, which the next one waits for
+     */
+    private CompletableFuture<?> lastOperation = CompletableFuture.completedFuture(null);
     public Configuration(String version, File file) {
         super();
         this.version = version;
@@ -68,47 +89,62 @@ public abstract class Configuration extends AbstractConfiguration implements Def
      * before getting the values from the config
      * If the version is changed in the class constructor,
      * then the config will overload all values to the ones set in {@link #defaults()}, {@link #defaultComments()}
+     * An existing file is only written again if the defaults were applied
      */
     @Override
     public void initialize() {
-        if (file.exists()){
-            load(this.file);
-            checkDefaults();
-            save(file);
-            return;
-        }
-        createConfig();
-    }
-
-    private void checkDefaults(File file) {
-        if (!checkVersion()){
-            setVersionConfig();
-            defaults().forEach((str, obj) -> {
-                if (obj instanceof Map<?,?>){
-                    createSection(str, (Map<?, ?>) obj);
-                    return;
-                }
-                set(str, obj);
-            });
-            defaultComments().forEach(this::setComments);
-            save(file);
-        }
+        setConfiguration(readInitialized());
     }
 
-    private void checkDefaults() {
-        checkDefaults(this.file);
+    /**
+     * Does the same as {@link #initialize()} on the executor of this configuration,
+     * see {@link #setExecutor(Executor)}.
+     * The initialized configuration replaces the current one once it was read,
+     * so readers on other threads see either the previous or the new one
+     * @return A future which completes once the configuration was initialized
+     */
+    public CompletableFuture<Void> initializeAsync() {
+        return submit(() -> {
+            setConfiguration(readInitialized());
+            return null;
+        });
     }
 
-    private void setVersionConfig() {
-        set("version", version);
+    /**
+     * Reads the configuration from the file, creating the file and applying the defaults if needed
+     * @return The initialized configuration
+     */
+    private FileConfiguration readInitialized() {
+        boolean created = !file.exists();
+        if (created) {
+            createFile();
+        }
+        FileConfiguration config = YamlConfiguration.loadConfiguration(file);
+        if (checkDefaults(config) || created) {
+            save(config, file, saveMode);
+        }
+        return config;
     }
 
-    private void createConfig() {
-        createFile();
-        setConfiguration(load(file));
-        checkDefaults();
-        setVersionConfig();
-        save(file);
+    /**
+     * Applies the default values and comments if the version of the loaded config does not match
+     * @param config The loaded config
+     * @return {@code true} if the config was changed and has to be saved
+     */
+    private boolean checkDefaults(FileConfiguration config) {
+        if (matchesVersion(config)) {
+            return false;
+        }
+        config.set("version", version);
+        defaults().forEach((str, obj) -> {
+            if (obj instanceof Map<?,?>){
+                config.createSection(str, (Map<?, ?>) obj);
+                return;
+            }
+            config.set(str, obj);
+        });
+        defaultComments().forEach(config::setComments);
+        return true;
     }
 
     private void createFile() {
@@ -128,11 +164,25 @@ public abstract class Configuration extends AbstractConfiguration implements Def
     }
     @Override
     protected void save(File file) {
+        save(file, saveMode);
+    }
+
+    protected void save(File file, SaveMode mode) {
         Validate.notNull(file, "File cannot be null");
+        Validate.notNull(mode, "Save mode cannot be null");
         FileConfiguration config = getConfiguration();
         Validate.notNull(config, "The configuration cannot be null", config);
+        WriteBehindSaver saver = this.saver;
+        if (saver != null) {
+            saver.save(config, file, mode);
+            return;
+        }
+        save(config, file, mode);
+    }
+
+    private void save(FileConfiguration config, File file, SaveMode mode) {
         try {
-            config.save(file);
+            config.save(file, mode);
         } catch (IOException e) {
             logger.warn("The configuration cannot be saved", e);
         }
@@ -148,6 +198,17 @@ public abstract class Configuration extends AbstractConfiguration implements Def
         return load(this.file);
     }
 
+    /**
+     * Does the same as {@link #load()} on the executor of this configuration,
+     * see {@link #setExecutor(Executor)}.
+     * The file is read into a new configuration, which replaces the current one once it was read,
+     * so readers on other threads see either the previous or the new one
+     * @return A future of the loaded configuration
+     */
+    public CompletableFuture<FileConfiguration> loadAsync() {
+        return submit(this::load);
+    }
+
     /**
      * Adds default values to the config that are added after initialization
      * @return Default values that will be added to the config
@@ -169,6 +230,123 @@ public abstract class Configuration extends AbstractConfiguration implements Def
         save(this.file);
     }
 
+    /**
+     * Saves the configuration to a file, using the given mode instead of {@link #getSaveMode()}
+     * @param mode How the file is written
+     */
+    public void save(@NotNull SaveMode mode) {
+        save(this.file, mode);
+    }
+
+    /**
+     * Saves the configuration to a file on the executor of this configuration,
+     * see {@link #setExecutor(Executor)}.
+     * The configuration is saved to a string on the calling thread, so it must not be changed
+     * by other threads meanwhile, and only the file is written on the executor.
+     * If a saver is set, see {@link #setSaver(WriteBehindSaver)}, the save is requested from
+     * the saver on the executor instead, which writes the file like it does for {@link #save()}.
+     * Asynchronous operations of the same configuration run in the order they were started
+     * @return A future which completes once the file was written, or completes exceptionally
+     * if it could not be written
+     */
+    public CompletableFuture<Void> saveAsync() {
+        FileConfiguration config = getConfiguration();
+        Validate.notNull(config, "The configuration cannot be null", config);
+        SaveMode mode = saveMode;
+        WriteBehindSaver saver = this.saver;
+        if (saver != null) {
+            return submit(() -> saver.save(config, file, mode)).thenCompose(written -> written);
+        }
+        String contents = config.saveToString();
+        return submit(() -> {
+            try {
+                FileConfiguration.save(contents, file, mode);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Runs a task on the executor once the previous asynchronous operation completed
+     * @param task The task
+     * @return A future of the result of the task
+     */
+    private synchronized <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = lastOperation.handle((result, e) -> null).thenApplyAsync(ignored -> task.get(), executor);
+        lastOperation = future;
+        return future;
+    }
+
+    /**
+     * Gets the saver which writes the file some time after {@link #save()} was called
+     * @return The saver, or {@code null} if the file is written right away
+     */
+    @Nullable
+    public WriteBehindSaver getSaver() {
+        return saver;
+    }
+
+    /**
+     * Sets the saver which writes the file some time after {@link #save()} was called,
+     * so that a burst of saves only writes the file once.
+     * The saver may be shared by many configurations, and should be closed on shutdown
+     * @param saver The saver, or {@code null} to write the file right away
+     */
+    public void setSaver(@Nullable WriteBehindSaver saver) {
+        this.saver = saver;
+    }
+
+    /**
+     * Gets the executor the asynchronous operations of the configuration run on
+     * @return The executor, which uses virtual threads if the runtime has them by default
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor the asynchronous operations of the configuration run on,
+     * such as {@link #loadAsync()} and {@link #saveAsync()}
+     * @param executor The executor
+     */
+    public void setExecutor(@NotNull Executor executor) {
+        Validate.notNull(executor, "Executor cannot be null");
+        this.executor = executor;
+    }
+
+    private static Executor createDefaultExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "configuration-io");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Gets the mode used when saving the configuration to its file
+     * @return The save mode, {@link SaveMode#DIRECT} by default
+     */
+    public SaveMode getSaveMode() {
+        return saveMode;
+    }
+
+    /**
+     * Sets the mode used when saving the configuration to its file.
+     * {@link SaveMode#ATOMIC} never leaves a half-written file behind,
+     * {@link SaveMode#ATOMIC_SYNC} also waits for the file to reach the disk
+     * @param saveMode The save mode
+     */
+    public void setSaveMode(@NotNull SaveMode saveMode) {
+        Validate.notNull(saveMode, "Save mode cannot be null");
+        this.saveMode = saveMode;
+    }
+
     /**
      * Checking the configuration version (to change the default settings if the version has been updated)
      * @return Coincidence with the version specified in the class ({@code true} - matches, {@code false} - does not match)
@@ -179,4 +357,9 @@ public abstract class Configuration extends AbstractConfiguration implements Def
         if (optional.isEmpty()) return false;
         return optional.get().equalsIgnoreCase(version);
     }
+
+    private boolean matchesVersion(FileConfiguration config) {
+        String loaded = config.getString("version");
+        return loaded != null && loaded.equalsIgnoreCase(version);
+    }
 }
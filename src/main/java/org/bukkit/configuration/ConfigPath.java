@@ -0,0 +1,184 @@
+package org.bukkit.configuration;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A path into a {@link ConfigurationSection} that has already been split
+ * into its individual keys.
+ * <p>
+ * Every String path is split on the path separator each time it is used to
+ * access a section. A ConfigPath does this work once, when it is created, so
+ * paths that are read frequently may be kept in a constant and reused without
+ * producing any garbage.
+ * <p>
+ * The separator is bound when the path is created. It is only used to split
+ * the given String and to build {@link #toString()}, the keys themselves are
+ * matched regardless of the separator configured in the {@link
+ * ConfigurationOptions} of the accessed {@link Configuration}.
+ */
+public final class ConfigPath {
+    private static final ConfigPath EMPTY = new ConfigPath("", '.', new String[0]);
+
+    private final String path;
+    private final char separator;
+    private final String[] keys;
+    private final int hash;
+
+    private ConfigPath(@NotNull String path, char separator, @NotNull String[] keys) {
+        this.path = path;
+        this.separator = separator;
+        this.keys = keys;
+        this.hash = Arrays.hashCode(keys);
+    }
+
+    /**
+     * Creates a ConfigPath from the given String, using '.' as separator.
+     *
+     * @param path Path to split.
+     * @return The compiled path.
+     * @throws IllegalArgumentException Thrown when path is null.
+     */
+    @NotNull
+    public static ConfigPath of(@NotNull String path) {
+        return of(path, '.');
+    }
+
+    /**
+     * Creates a ConfigPath from the given String, using the given separator.
+     * <p>
+     * An empty String results in a path to the section itself.
+     *
+     * @param path Path to split.
+     * @param separator Separator between the keys of the path.
+     * @return The compiled path.
+     * @throws IllegalArgumentException Thrown when path is null.
+     */
+    @NotNull
+    public static ConfigPath of(@NotNull String path, char separator) {
+        Preconditions.checkArgument(path != null, "Path cannot be null");
+
+        if (path.isEmpty()) {
+            return separator == EMPTY.separator ? EMPTY : new ConfigPath(path, separator, EMPTY.keys);
+        }
+
+        List<String> keys = new ArrayList<String>();
+        // i1 is the leading (higher) index
+        // i2 is the trailing (lower) index
+        int i1 = -1, i2;
+        while ((i1 = path.indexOf(separator, i2 = i1 + 1)) != -1) {
+            keys.add(path.substring(i2, i1));
+        }
+        keys.add(path.substring(i2));
+
+        String[] result = keys.toArray(new String[0]);
+        for (String key : result) {
+            // String caches its hash, computing it now keeps it out of the lookups
+            key.hashCode();
+        }
+        return new ConfigPath(path, separator, result);
+    }
+
+    /**
+     * Creates a ConfigPath pointing to the given path below this one.
+     *
+     * @param child Path relative to this path.
+     * @return The combined path, using the separator of this path.
+     * @throws IllegalArgumentException Thrown when child is null.
+     */
+    @NotNull
+    public ConfigPath resolve(@NotNull ConfigPath child) {
+        Preconditions.checkArgument(child != null, "Child cannot be null");
+
+        if (child.keys.length == 0) {
+            return this;
+        }
+        if (keys.length == 0) {
+            return separator == child.separator ? child : new ConfigPath(child.join(0, separator), separator, child.keys);
+        }
+
+        String[] result = Arrays.copyOf(keys, keys.length + child.keys.length);
+        System.arraycopy(child.keys, 0, result, keys.length, child.keys.length);
+        return new ConfigPath(path + separator + child.join(0, separator), separator, result);
+    }
+
+    /**
+     * Gets the number of keys in this path.
+     *
+     * @return Number of keys, 0 for a path to the section itself.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the key at the given position of this path.
+     *
+     * @param index Position of the key.
+     * @return Key at the given position.
+     * @throws IndexOutOfBoundsException Thrown when index is not within the
+     *     path.
+     */
+    @NotNull
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Gets the separator this path was created with.
+     *
+     * @return Path separator
+     */
+    public char getSeparator() {
+        return separator;
+    }
+
+    /**
+     * Joins the keys starting from the given position with the given
+     * separator.
+     *
+     * @param from Position of the first key to include.
+     * @param separator Separator to put between the keys.
+     * @return The joined path.
+     */
+    @NotNull
+    String join(int from, char separator) {
+        if (from == 0 && separator == this.separator) {
+            return path;
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = from; i < keys.length; i++) {
+            if (i > from) {
+                builder.append(separator);
+            }
+            builder.append(keys[i]);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ConfigPath)) {
+            return false;
+        }
+        ConfigPath other = (ConfigPath) obj;
+        return hash == other.hash && Arrays.equals(keys, other.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -2,7 +2,11 @@ package org.bukkit.configuration;
 
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.stream.Stream;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -46,6 +50,84 @@ public interface ConfigurationSection {
     @NotNull
     public Map<String, Object> getValues(boolean deep);
 
+    /**
+     * Gets a read-only view of the keys of this section.
+     * <p>
+     * Behaves like {@link #getKeys(boolean)}, but the returned Set is not a
+     * copy: it reflects later changes to this section, and deep paths are
+     * only built while iterating. If defaults are copied into this section,
+     * the view may be a snapshot instead.
+     *
+     * @param deep Whether or not to get a deep list, as opposed to a shallow
+     *     list.
+     * @return Unmodifiable set of keys contained within this
+     *     ConfigurationSection.
+     */
+    @NotNull
+    public Set<String> getKeysView(boolean deep);
+
+    /**
+     * Gets a read-only view of the keys and values of this section.
+     * <p>
+     * Behaves like {@link #getValues(boolean)}, but the returned Map is not
+     * a copy: it reflects later changes to this section, and deep paths are
+     * only built while iterating. If defaults are copied into this section,
+     * the view may be a snapshot instead.
+     *
+     * @param deep Whether or not to get a deep list, as opposed to a shallow
+     *     list.
+     * @return Unmodifiable map of keys and values of this section.
+     */
+    @NotNull
+    public Map<String, Object> getValuesView(boolean deep);
+
+    /**
+     * Walks the values of this section with the given visitor, in the order
+     * they are stored.
+     * <p>
+     * If deep is set to true, the values of every child {@link
+     * ConfigurationSection} are visited between the calls to {@link
+     * ConfigurationVisitor#enterSection(ConfigurationSection)} and {@link
+     * ConfigurationVisitor#leaveSection(ConfigurationSection)} for that
+     * section. If deep is set to false, child sections are entered and left
+     * without visiting their values. Default values are not visited.
+     *
+     * @param visitor The visitor to call for each value.
+     * @param deep Whether or not to visit the values of child sections.
+     * @return False if the walk was terminated by the visitor, otherwise
+     *     true.
+     * @throws IllegalArgumentException Thrown when visitor is null.
+     */
+    public boolean walk(@NotNull ConfigurationVisitor visitor, boolean deep);
+
+    /**
+     * Gets a sequential Stream of the keys and values of this section.
+     * <p>
+     * The entries are the same as those of {@link #getValues(boolean)}, in
+     * the same order, but they are created while the stream is consumed
+     * instead of being copied first.
+     *
+     * @param deep Whether or not to include the values of child sections.
+     * @return Stream of keys and values of this section.
+     */
+    @NotNull
+    public Stream<Map.Entry<String, Object>> stream(boolean deep);
+
+    /**
+     * Gets a possibly parallel Stream of the keys and values of this
+     * section.
+     * <p>
+     * Behaves like {@link #stream(boolean)}. The section is split between
+     * workers at child section boundaries, so large subtrees are processed
+     * independently. The section must not be modified while the stream is
+     * consumed.
+     *
+     * @param deep Whether or not to include the values of child sections.
+     * @return Stream of keys and values of this section.
+     */
+    @NotNull
+    public Stream<Map.Entry<String, Object>> parallelStream(boolean deep);
+
     /**
      * Checks if this {@link ConfigurationSection} contains the given path.
      * <p>
@@ -78,6 +160,17 @@ public interface ConfigurationSection {
      */
     public boolean contains(@NotNull String path, boolean ignoreDefault);
 
+    /**
+     * Checks if this {@link ConfigurationSection} contains the given path.
+     * <p>
+     * Behaves like {@link #contains(String)}, without parsing the path.
+     *
+     * @param path Path to check for existence.
+     * @return True if this section contains the requested path, either via
+     *     default or being set.
+     */
+    public boolean contains(@NotNull ConfigPath path);
+
     /**
      * Checks if this {@link ConfigurationSection} has a value set for the
      * given path.
@@ -92,6 +185,18 @@ public interface ConfigurationSection {
      */
     public boolean isSet(@NotNull String path);
 
+    /**
+     * Checks if this {@link ConfigurationSection} has a value set for the
+     * given path.
+     * <p>
+     * Behaves like {@link #isSet(String)}, without parsing the path.
+     *
+     * @param path Path to check for existence.
+     * @return True if this section contains the requested path, regardless of
+     *     having a default.
+     */
+    public boolean isSet(@NotNull ConfigPath path);
+
     /**
      * Gets the path of this {@link ConfigurationSection} from its root {@link
      * Configuration}
@@ -180,6 +285,31 @@ public interface ConfigurationSection {
     @Nullable
     public Object get(@NotNull String path, @Nullable Object def);
 
+    /**
+     * Gets the requested Object by path.
+     * <p>
+     * Behaves like {@link #get(String)}, without parsing the path.
+     *
+     * @param path Path of the Object to get.
+     * @return Requested Object.
+     */
+    @Nullable
+    public Object get(@NotNull ConfigPath path);
+
+    /**
+     * Gets the requested Object by path, returning a default value if not
+     * found.
+     * <p>
+     * Behaves like {@link #get(String, Object)}, without parsing the path.
+     *
+     * @param path Path of the Object to get.
+     * @param def The default value to return if the path is not found.
+     * @return Requested Object.
+     */
+    @Contract("_, !null -> !null")
+    @Nullable
+    public Object get(@NotNull ConfigPath path, @Nullable Object def);
+
     /**
      * Sets the specified path to the given value.
      * <p>
@@ -190,12 +320,115 @@ public interface ConfigurationSection {
      * their individual javadocs for details. No implementations should allow
      * you to store {@link Configuration}s or {@link ConfigurationSection}s,
      * please use {@link #createSection(String)} for that.
+     * <p>
+     * The overloads for primitive values, such as {@link #set(String, int)},
+     * may store the value without calling this method. An implementation
+     * overriding this method to observe the values set should override them
+     * too, unless it documents that they call this method.
      *
      * @param path Path of the object to set.
      * @param value New value to set the path to.
      */
     public void set(@NotNull String path, @Nullable Object value);
 
+    /**
+     * Sets the specified path to the given int.
+     * <p>
+     * Behaves like {@link #set(String, Object)}, but allows implementations
+     * to store the value without boxing it.
+     *
+     * @param path Path of the int to set.
+     * @param value New value to set the path to.
+     */
+    public void set(@NotNull String path, int value);
+
+    /**
+     * Sets the specified path to the given long.
+     * <p>
+     * Behaves like {@link #set(String, Object)}, but allows implementations
+     * to store the value without boxing it.
+     *
+     * @param path Path of the long to set.
+     * @param value New value to set the path to.
+     */
+    public void set(@NotNull String path, long value);
+
+    /**
+     * Sets the specified path to the given double.
+     * <p>
+     * Behaves like {@link #set(String, Object)}, but allows implementations
+     * to store the value without boxing it.
+     *
+     * @param path Path of the double to set.
+     * @param value New value to set the path to.
+     */
+    public void set(@NotNull String path, double value);
+
+    /**
+     * Sets the specified path to the given boolean.
+     * <p>
+     * Behaves like {@link #set(String, Object)}, but allows implementations
+     * to store the value without boxing it.
+     *
+     * @param path Path of the boolean to set.
+     * @param value New value to set the path to.
+     */
+    public void set(@NotNull String path, boolean value);
+
+    /**
+     * Sets the specified path to the given float.
+     * <p>
+     * Behaves like {@link #set(String, Object)}, the value is stored as a
+     * {@link Float}.
+     *
+     * @param path Path of the float to set.
+     * @param value New value to set the path to.
+     */
+    public void set(@NotNull String path, float value);
+
+    /**
+     * Sets the specified path to the given short.
+     * <p>
+     * Behaves like {@link #set(String, Object)}, the value is stored as a
+     * {@link Short}.
+     *
+     * @param path Path of the short to set.
+     * @param value New value to set the path to.
+     */
+    public void set(@NotNull String path, short value);
+
+    /**
+     * Sets the specified path to the given byte.
+     * <p>
+     * Behaves like {@link #set(String, Object)}, the value is stored as a
+     * {@link Byte}.
+     *
+     * @param path Path of the byte to set.
+     * @param value New value to set the path to.
+     */
+    public void set(@NotNull String path, byte value);
+
+    /**
+     * Sets the specified path to the given char.
+     * <p>
+     * Behaves like {@link #set(String, Object)}, the value is stored as a
+     * {@link Character}.
+     *
+     * @param path Path of the char to set.
+     * @param value New value to set the path to.
+     */
+    public void set(@NotNull String path, char value);
+
+    /**
+     * Sets the specified path to the given value.
+     * <p>
+     * Behaves like {@link #set(String, Object)}, without parsing the path.
+     *
+     * @param path Path of the object to set.
+     * @param value New value to set the path to.
+     */
+    public void set(@NotNull ConfigPath path, @Nullable Object value);
+
     /**
      * Creates an empty {@link ConfigurationSection} at the specified path.
      * <p>
@@ -255,6 +488,32 @@ public interface ConfigurationSection {
     @Nullable
     public String getString(@NotNull String path, @Nullable String def);
 
+    /**
+     * Gets the requested String by path.
+     * <p>
+     * Behaves like {@link #getString(String)}, without parsing the path.
+     *
+     * @param path Path of the String to get.
+     * @return Requested String.
+     */
+    @Nullable
+    public String getString(@NotNull ConfigPath path);
+
+    /**
+     * Gets the requested String by path, returning a default value if not
+     * found.
+     * <p>
+     * Behaves like {@link #getString(String, String)}, without parsing the path.
+     *
+     * @param path Path of the String to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a String.
+     * @return Requested String.
+     */
+    @Contract("_, !null -> !null")
+    @Nullable
+    public String getString(@NotNull ConfigPath path, @Nullable String def);
+
     /**
      * Checks if the specified path is a String.
      * <p>
@@ -294,6 +553,54 @@ public interface ConfigurationSection {
      */
     public int getInt(@NotNull String path, int def);
 
+    /**
+     * Gets the requested int by path.
+     * <p>
+     * Behaves like {@link #getInt(String)}, without parsing the path.
+     *
+     * @param path Path of the int to get.
+     * @return Requested int.
+     */
+    public int getInt(@NotNull ConfigPath path);
+
+    /**
+     * Gets the requested int by path, returning a default value if not
+     * found.
+     * <p>
+     * Behaves like {@link #getInt(String, int)}, without parsing the path.
+     *
+     * @param path Path of the int to get.
+     * @param def The default value to return if the path is not found or is
+     *     not an int.
+     * @return Requested int.
+     */
+    public int getInt(@NotNull ConfigPath path, int def);
+
+    /**
+     * Gets the requested int by path, if it is set.
+     * <p>
+     * If the int does not exist but a default value has been specified, this
+     * will return the default value. If the int does not exist and no default
+     * value was specified, this will return {@link OptionalInt#empty()}. Unlike
+     * {@link #getInt(String)}, a missing value can be told apart from 0.
+     *
+     * @param path Path of the int to get.
+     * @return Requested int.
+     */
+    @NotNull
+    public OptionalInt getOptionalInt(@NotNull String path);
+
+    /**
+     * Gets the requested int by path, if it is set.
+     * <p>
+     * Behaves like {@link #getOptionalInt(String)}, without parsing the path.
+     *
+     * @param path Path of the int to get.
+     * @return Requested int.
+     */
+    @NotNull
+    public OptionalInt getOptionalInt(@NotNull ConfigPath path);
+
     /**
      * Checks if the specified path is an int.
      * <p>
@@ -334,6 +641,29 @@ public interface ConfigurationSection {
      */
     public boolean getBoolean(@NotNull String path, boolean def);
 
+    /**
+     * Gets the requested boolean by path.
+     * <p>
+     * Behaves like {@link #getBoolean(String)}, without parsing the path.
+     *
+     * @param path Path of the boolean to get.
+     * @return Requested boolean.
+     */
+    public boolean getBoolean(@NotNull ConfigPath path);
+
+    /**
+     * Gets the requested boolean by path, returning a default value if not
+     * found.
+     * <p>
+     * Behaves like {@link #getBoolean(String, boolean)}, without parsing the path.
+     *
+     * @param path Path of the boolean to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a boolean.
+     * @return Requested boolean.
+     */
+    public boolean getBoolean(@NotNull ConfigPath path, boolean def);
+
     /**
      * Checks if the specified path is a boolean.
      * <p>
@@ -374,6 +704,54 @@ public interface ConfigurationSection {
      */
     public double getDouble(@NotNull String path, double def);
 
+    /**
+     * Gets the requested double by path.
+     * <p>
+     * Behaves like {@link #getDouble(String)}, without parsing the path.
+     *
+     * @param path Path of the double to get.
+     * @return Requested double.
+     */
+    public double getDouble(@NotNull ConfigPath path);
+
+    /**
+     * Gets the requested double by path, returning a default value if not
+     * found.
+     * <p>
+     * Behaves like {@link #getDouble(String, double)}, without parsing the path.
+     *
+     * @param path Path of the double to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a double.
+     * @return Requested double.
+     */
+    public double getDouble(@NotNull ConfigPath path, double def);
+
+    /**
+     * Gets the requested double by path, if it is set.
+     * <p>
+     * If the double does not exist but a default value has been specified, this
+     * will return the default value. If the double does not exist and no default
+     * value was specified, this will return {@link OptionalDouble#empty()}. Unlike
+     * {@link #getDouble(String)}, a missing value can be told apart from 0.
+     *
+     * @param path Path of the double to get.
+     * @return Requested double.
+     */
+    @NotNull
+    public OptionalDouble getOptionalDouble(@NotNull String path);
+
+    /**
+     * Gets the requested double by path, if it is set.
+     * <p>
+     * Behaves like {@link #getOptionalDouble(String)}, without parsing the path.
+     *
+     * @param path Path of the double to get.
+     * @return Requested double.
+     */
+    @NotNull
+    public OptionalDouble getOptionalDouble(@NotNull ConfigPath path);
+
     /**
      * Checks if the specified path is a double.
      * <p>
@@ -414,6 +792,54 @@ public interface ConfigurationSection {
      */
     public long getLong(@NotNull String path, long def);
 
+    /**
+     * Gets the requested long by path.
+     * <p>
+     * Behaves like {@link #getLong(String)}, without parsing the path.
+     *
+     * @param path Path of the long to get.
+     * @return Requested long.
+     */
+    public long getLong(@NotNull ConfigPath path);
+
+    /**
+     * Gets the requested long by path, returning a default value if not
+     * found.
+     * <p>
+     * Behaves like {@link #getLong(String, long)}, without parsing the path.
+     *
+     * @param path Path of the long to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a long.
+     * @return Requested long.
+     */
+    public long getLong(@NotNull ConfigPath path, long def);
+
+    /**
+     * Gets the requested long by path, if it is set.
+     * <p>
+     * If the long does not exist but a default value has been specified, this
+     * will return the default value. If the long does not exist and no default
+     * value was specified, this will return {@link OptionalLong#empty()}. Unlike
+     * {@link #getLong(String)}, a missing value can be told apart from 0.
+     *
+     * @param path Path of the long to get.
+     * @return Requested long.
+     */
+    @NotNull
+    public OptionalLong getOptionalLong(@NotNull String path);
+
+    /**
+     * Gets the requested long by path, if it is set.
+     * <p>
+     * Behaves like {@link #getOptionalLong(String)}, without parsing the path.
+     *
+     * @param path Path of the long to get.
+     * @return Requested long.
+     */
+    @NotNull
+    public OptionalLong getOptionalLong(@NotNull ConfigPath path);
+
     /**
      * Checks if the specified path is a long.
      * <p>
@@ -458,6 +884,32 @@ public interface ConfigurationSection {
     @Nullable
     public List<?> getList(@NotNull String path, @Nullable List<?> def);
 
+    /**
+     * Gets the requested List by path.
+     * <p>
+     * Behaves like {@link #getList(String)}, without parsing the path.
+     *
+     * @param path Path of the List to get.
+     * @return Requested List.
+     */
+    @Nullable
+    public List<?> getList(@NotNull ConfigPath path);
+
+    /**
+     * Gets the requested List by path, returning a default value if not
+     * found.
+     * <p>
+     * Behaves like {@link #getList(String, List)}, without parsing the path.
+     *
+     * @param path Path of the List to get.
+     * @param def The default value to return if the path is not found or is
+     *     not a List.
+     * @return Requested List.
+     */
+    @Contract("_, !null -> !null")
+    @Nullable
+    public List<?> getList(@NotNull ConfigPath path, @Nullable List<?> def);
+
     /**
      * Checks if the specified path is a List.
      * <p>
@@ -729,6 +1181,17 @@ public interface ConfigurationSection {
     @Nullable
     public ConfigurationSection getConfigurationSection(@NotNull String path);
 
+    /**
+     * Gets the requested ConfigurationSection by path.
+     * <p>
+     * Behaves like {@link #getConfigurationSection(String)}, without parsing the path.
+     *
+     * @param path Path of the ConfigurationSection to get.
+     * @return Requested ConfigurationSection.
+     */
+    @Nullable
+    public ConfigurationSection getConfigurationSection(@NotNull ConfigPath path);
+
     /**
      * Checks if the specified path is a ConfigurationSection.
      * <p>
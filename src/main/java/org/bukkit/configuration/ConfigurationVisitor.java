@@ -0,0 +1,92 @@
+package org.bukkit.configuration;
+
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A visitor of the values of a {@link ConfigurationSection}, used by {@link
+ * ConfigurationSection#walk(ConfigurationVisitor, boolean)}.
+ * <p>
+ * The walk does not build any path. The full path of a value may be created
+ * on demand with {@link MemorySection#createPath(ConfigurationSection,
+ * String)}, using the section and key passed to the visitor.
+ * <p>
+ * Sections must not be modified while they are being walked.
+ */
+public interface ConfigurationVisitor {
+
+    /**
+     * The result of a visit, controlling how the walk continues.
+     */
+    public enum Result {
+        /**
+         * Continue the walk.
+         */
+        CONTINUE,
+        /**
+         * Continue the walk without visiting the values of the section that
+         * is being entered. {@link #leaveSection(ConfigurationSection)} is
+         * not called for that section. Returned by any other method, this
+         * behaves like {@link #CONTINUE}.
+         */
+        SKIP_SUBTREE,
+        /**
+         * Continue the walk without visiting the remaining values of the
+         * section holding the current value. If returned when entering a
+         * section, the values of that section are skipped as well.
+         */
+        SKIP_SIBLINGS,
+        /**
+         * Stop the walk.
+         */
+        TERMINATE
+    }
+
+    /**
+     * Called for a subsection, before its values are visited.
+     *
+     * @param section The subsection.
+     * @return How to continue the walk.
+     */
+    @NotNull
+    default Result enterSection(@NotNull ConfigurationSection section) {
+        return Result.CONTINUE;
+    }
+
+    /**
+     * Called for a value that is neither a section nor a {@link List}.
+     *
+     * @param section Section holding the value.
+     * @param key Key of the value within the section.
+     * @param value The value.
+     * @return How to continue the walk.
+     */
+    @NotNull
+    default Result visitScalar(@NotNull ConfigurationSection section, @NotNull String key, @NotNull Object value) {
+        return Result.CONTINUE;
+    }
+
+    /**
+     * Called for a {@link List} value.
+     *
+     * @param section Section holding the list.
+     * @param key Key of the list within the section.
+     * @param value The list.
+     * @return How to continue the walk.
+     */
+    @NotNull
+    default Result visitList(@NotNull ConfigurationSection section, @NotNull String key, @NotNull List<?> value) {
+        return Result.CONTINUE;
+    }
+
+    /**
+     * Called for a subsection, after its values were visited.
+     *
+     * @param section The subsection.
+     * @return How to continue the walk.
+     */
+    @NotNull
+    default Result leaveSection(@NotNull ConfigurationSection section) {
+        return Result.CONTINUE;
+    }
+}
@@ -13,6 +13,11 @@ import org.jetbrains.annotations.Nullable;
 public class MemoryConfiguration extends MemorySection implements Configuration {
     protected Configuration defaults;
     protected MemoryConfigurationOptions options;
+    /**
+     * The index of full paths. It is built completely before it is stored,
+     * so readers on other threads never see a partly built index.
+     */
+    private volatile PathIndex pathIndex;
 
     /**
      * Creates an empty {@link MemoryConfiguration} with no default values.
@@ -80,6 +85,57 @@ public class MemoryConfiguration extends MemorySection implements Configuration
         return null;
     }
 
+    /**
+     * Removes every value of this configuration, leaving only settings and
+     * defaults.
+     */
+    protected void clearValues() {
+        map.clear();
+        pathIndex = null;
+    }
+
+    /**
+     * Gets the index of full paths, building it if it is enabled but not
+     * built yet. A new index is only stored once it is built, and readers
+     * on several threads may each build one.
+     *
+     * @return The index, or null if it is disabled.
+     */
+    @Nullable
+    PathIndex pathIndex() {
+        if (!options().pathIndex()) {
+            return null;
+        }
+        PathIndex index = pathIndex;
+        if (index == null || index.separator() != options().pathSeparator()) {
+            index = PathIndex.build(this, options().pathSeparator());
+            pathIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the index of full paths only if it is enabled and already built,
+     * for keeping it up to date.
+     *
+     * @return The index, or null if there is nothing to update.
+     */
+    @Nullable
+    PathIndex currentPathIndex() {
+        PathIndex index = pathIndex;
+        if (index != null && (!options().pathIndex() || index.separator() != options().pathSeparator())) {
+            index = pathIndex = null;
+        }
+        return index;
+    }
+
+    /**
+     * Drops the index of full paths, to be rebuilt on its next use.
+     */
+    void invalidatePathIndex() {
+        pathIndex = null;
+    }
+
     @Override
     @NotNull
     public MemoryConfigurationOptions options() {
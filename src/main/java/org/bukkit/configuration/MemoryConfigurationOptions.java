@@ -7,6 +7,8 @@ import org.jetbrains.annotations.NotNull;
  * MemoryConfiguration}
  */
 public class MemoryConfigurationOptions extends ConfigurationOptions {
+    private boolean pathIndex = false;
+
     protected MemoryConfigurationOptions(@NotNull MemoryConfiguration configuration) {
         super(configuration);
     }
@@ -30,4 +32,39 @@ public class MemoryConfigurationOptions extends ConfigurationOptions {
         super.pathSeparator(value);
         return this;
     }
+
+    /**
+     * Checks if the {@link MemoryConfiguration} keeps an index of the full
+     * path of every value.
+     * <p>
+     * If this is true, getting a value by a path of any depth takes a single
+     * lookup instead of one lookup per section in the path, and {@link
+     * MemoryConfiguration#getKeys(boolean)} can be answered from the index.
+     * The index is kept up to date when values are set, and costs memory for
+     * every full path held by the configuration. The default value is false.
+     *
+     * @return Whether or not the full paths are indexed
+     */
+    public boolean pathIndex() {
+        return pathIndex;
+    }
+
+    /**
+     * Sets if the {@link MemoryConfiguration} keeps an index of the full
+     * path of every value.
+     * <p>
+     * If this is true, getting a value by a path of any depth takes a single
+     * lookup instead of one lookup per section in the path, and {@link
+     * MemoryConfiguration#getKeys(boolean)} can be answered from the index.
+     * The index is kept up to date when values are set, and costs memory for
+     * every full path held by the configuration. The default value is false.
+     *
+     * @param value Whether or not the full paths are indexed
+     * @return This object, for chaining
+     */
+    @NotNull
+    public MemoryConfigurationOptions pathIndex(boolean value) {
+        this.pathIndex = value;
+        return this;
+    }
 }
@@ -3,13 +3,28 @@ package org.bukkit.configuration;
 import static org.bukkit.util.NumberConversions.*;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.jetbrains.annotations.Contract;
@@ -18,13 +33,41 @@ import org.jetbrains.annotations.Nullable;
 
 /**
  * A type of {@link ConfigurationSection} that is stored in memory.
+ * <p>
+ * The setters of ints, longs, doubles and booleans store the values without
+ * boxing them, unless a subclass overrides {@link #set(String, Object)}. They
+ * then pass the boxed values to it, so that the override sees every value
+ * set.
  */
 public class MemorySection implements ConfigurationSection {
-    protected final Map<String, SectionPathData> map = new LinkedHashMap<String, SectionPathData>();
+    /**
+     * Whether a class overrides {@link #set(String, Object)}.
+     */
+    private static final ClassValue<Boolean> OVERRIDES_SET = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("set", String.class, Object.class).getDeclaringClass() != MemorySection.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    protected final Map<String, SectionPathData> map = new SectionMap();
     private final Configuration root;
     private final ConfigurationSection parent;
     private final String path;
-    private final String fullPath;
+    private String fullPath;
+    /**
+     * The path separator {@link #fullPath} was built with.
+     */
+    private char fullPathSeparator;
+    /**
+     * Counts the changes of the values and comments of this section and of
+     * its subsections, see {@link #getModifications(MemorySection)}.
+     */
+    private int modifications;
 
     /**
      * Creates an empty MemorySection for use as a root {@link Configuration}
@@ -67,14 +110,23 @@ public class MemorySection implements ConfigurationSection {
         Preconditions.checkArgument(root != null, "Path cannot be orphaned");
 
         this.fullPath = createPath(parent, path);
+        this.fullPathSeparator = root.options().pathSeparator();
     }
 
     @Override
     @NotNull
     public Set<String> getKeys(boolean deep) {
+        Configuration root = getRoot();
+        if (deep && root == this && root instanceof MemoryConfiguration && !root.options().copyDefaults()) {
+            PathIndex index = ((MemoryConfiguration) root).pathIndex();
+            Set<String> paths = (index == null) ? null : index.orderedPaths();
+            if (paths != null) {
+                return new LinkedHashSet<String>(paths);
+            }
+        }
+
         Set<String> result = new LinkedHashSet<String>();
 
-        Configuration root = getRoot();
         if (root != null && root.options().copyDefaults()) {
             ConfigurationSection defaults = getDefaultSection();
 
@@ -107,6 +159,466 @@ public class MemorySection implements ConfigurationSection {
         return result;
     }
 
+    @Override
+    @NotNull
+    public Set<String> getKeysView(final boolean deep) {
+        if (copiesDefaults()) {
+            return Collections.unmodifiableSet(getKeys(deep));
+        }
+        if (!deep) {
+            return Collections.unmodifiableSet(map.keySet());
+        }
+
+        return new AbstractSet<String>() {
+            @Override
+            @NotNull
+            public Iterator<String> iterator() {
+                return new DeepIterator();
+            }
+
+            @Override
+            public int size() {
+                return countDeep();
+            }
+        };
+    }
+
+    @Override
+    @NotNull
+    public Map<String, Object> getValuesView(final boolean deep) {
+        if (copiesDefaults()) {
+            return Collections.unmodifiableMap(getValues(deep));
+        }
+
+        return new AbstractMap<String, Object>() {
+            private Set<Map.Entry<String, Object>> entries;
+
+            @Override
+            @NotNull
+            public Set<Map.Entry<String, Object>> entrySet() {
+                if (entries == null) {
+                    entries = new AbstractSet<Map.Entry<String, Object>>() {
+                        @Override
+                        @NotNull
+                        public Iterator<Map.Entry<String, Object>> iterator() {
+                            if (deep) {
+                                final DeepIterator paths = new DeepIterator();
+                                return new Iterator<Map.Entry<String, Object>>() {
+                                    @Override
+                                    public boolean hasNext() {
+                                        return paths.hasNext();
+                                    }
+
+                                    @Override
+                                    public Map.Entry<String, Object> next() {
+                                        String path = paths.next();
+                                        return new AbstractMap.SimpleImmutableEntry<String, Object>(path, paths.value());
+                                    }
+                                };
+                            }
+
+                            final Iterator<Map.Entry<String, SectionPathData>> children = map.entrySet().iterator();
+                            return new Iterator<Map.Entry<String, Object>>() {
+                                @Override
+                                public boolean hasNext() {
+                                    return children.hasNext();
+                                }
+
+                                @Override
+                                public Map.Entry<String, Object> next() {
+                                    return new ValueEntry(children.next());
+                                }
+                            };
+                        }
+
+                        @Override
+                        public int size() {
+                            return deep ? countDeep() : map.size();
+                        }
+                    };
+                }
+                return entries;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return deep ? super.containsKey(key) : map.containsKey(key);
+            }
+
+            @Override
+            public Object get(Object key) {
+                if (deep) {
+                    return super.get(key);
+                }
+                SectionPathData entry = map.get(key);
+                return (entry == null) ? null : entry.getData();
+            }
+        };
+    }
+
+    @Override
+    public boolean walk(@NotNull ConfigurationVisitor visitor, boolean deep) {
+        Preconditions.checkArgument(visitor != null, "Visitor cannot be null");
+
+        return walk(this, visitor, deep) != ConfigurationVisitor.Result.TERMINATE;
+    }
+
+    /**
+     * Visits the values of the given section.
+     *
+     * @return {@link ConfigurationVisitor.Result#TERMINATE} if the walk was
+     *     terminated, otherwise {@link ConfigurationVisitor.Result#CONTINUE}.
+     */
+    @NotNull
+    private static ConfigurationVisitor.Result walk(@NotNull ConfigurationSection section, @NotNull ConfigurationVisitor visitor, boolean deep) {
+        if (section instanceof MemorySection) {
+            for (Map.Entry<String, SectionPathData> entry : ((MemorySection) section).map.entrySet()) {
+                ConfigurationVisitor.Result result = visit(section, entry.getKey(), entry.getValue().getData(), visitor, deep);
+                if (result == ConfigurationVisitor.Result.TERMINATE) {
+                    return result;
+                }
+                if (result == ConfigurationVisitor.Result.SKIP_SIBLINGS) {
+                    break;
+                }
+            }
+        } else {
+            for (Map.Entry<String, Object> entry : section.getValuesView(false).entrySet()) {
+                ConfigurationVisitor.Result result = visit(section, entry.getKey(), entry.getValue(), visitor, deep);
+                if (result == ConfigurationVisitor.Result.TERMINATE) {
+                    return result;
+                }
+                if (result == ConfigurationVisitor.Result.SKIP_SIBLINGS) {
+                    break;
+                }
+            }
+        }
+        return ConfigurationVisitor.Result.CONTINUE;
+    }
+
+    @NotNull
+    private static ConfigurationVisitor.Result visit(@NotNull ConfigurationSection section, @NotNull String key, @NotNull Object value, @NotNull ConfigurationVisitor visitor, boolean deep) {
+        ConfigurationVisitor.Result result;
+        if (value instanceof ConfigurationSection) {
+            ConfigurationSection subsection = (ConfigurationSection) value;
+            result = visitor.enterSection(subsection);
+            if (result != ConfigurationVisitor.Result.CONTINUE) {
+                return (result == ConfigurationVisitor.Result.SKIP_SUBTREE) ? ConfigurationVisitor.Result.CONTINUE : result;
+            }
+            if (deep && walk(subsection, visitor, true) == ConfigurationVisitor.Result.TERMINATE) {
+                return ConfigurationVisitor.Result.TERMINATE;
+            }
+            result = visitor.leaveSection(subsection);
+        } else if (value instanceof List) {
+            result = visitor.visitList(section, key, (List<?>) value);
+        } else {
+            result = visitor.visitScalar(section, key, value);
+        }
+        return (result == ConfigurationVisitor.Result.SKIP_SUBTREE) ? ConfigurationVisitor.Result.CONTINUE : result;
+    }
+
+    @Override
+    @NotNull
+    public Stream<Map.Entry<String, Object>> stream(boolean deep) {
+        return StreamSupport.stream(spliterator(deep), false);
+    }
+
+    @Override
+    @NotNull
+    public Stream<Map.Entry<String, Object>> parallelStream(boolean deep) {
+        return StreamSupport.stream(spliterator(deep), true);
+    }
+
+    @NotNull
+    private Spliterator<Map.Entry<String, Object>> spliterator(boolean deep) {
+        if (copiesDefaults()) {
+            return getValuesView(deep).entrySet().spliterator();
+        }
+        return new ValueSpliterator(this, "", deep, deep ? Long.MAX_VALUE : map.size());
+    }
+
+    /**
+     * Checks if the keys and values of this section are merged with those of
+     * its default section.
+     */
+    private boolean copiesDefaults() {
+        return root.options().copyDefaults() && getDefaultSection() != null;
+    }
+
+    private int countDeep() {
+        int size = 0;
+        for (Iterator<String> iterator = new DeepIterator(); iterator.hasNext(); iterator.next()) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * An entry of a values view, which only gets the value when it is
+     * requested.
+     */
+    private static final class ValueEntry implements Map.Entry<String, Object> {
+        private final String key;
+        private final SectionPathData data;
+
+        private ValueEntry(@NotNull Map.Entry<String, SectionPathData> entry) {
+            this.key = entry.getKey();
+            this.data = entry.getValue();
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return data.getData();
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return key.equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
+    /**
+     * Splits the values below this section between the entries of a section,
+     * and descends into a child section once it is the only entry left.
+     * The entries of each section are only copied into an array, and only
+     * when that section is first reached.
+     */
+    private final class ValueSpliterator implements Spliterator<Map.Entry<String, Object>> {
+        private final MemorySection section;
+        private final String prefix;
+        private final boolean deep;
+        private Object[] entries;
+        private int index;
+        private int fence;
+        private long estimate;
+        // Values below the entry last returned, which come before the next entry
+        private Spliterator<Map.Entry<String, Object>> children;
+
+        ValueSpliterator(@NotNull MemorySection section, @NotNull String prefix, boolean deep, long estimate) {
+            this.section = section;
+            this.prefix = prefix;
+            this.deep = deep;
+            this.fence = -1;
+            this.estimate = estimate;
+        }
+
+        private ValueSpliterator(@NotNull ValueSpliterator parent, boolean deep, int index, int fence, long estimate) {
+            this.section = parent.section;
+            this.prefix = parent.prefix;
+            this.deep = deep;
+            this.entries = parent.entries;
+            this.index = index;
+            this.fence = fence;
+            this.estimate = estimate;
+        }
+
+        private void load() {
+            if (fence == -1) {
+                entries = section.map.entrySet().toArray();
+                fence = entries.length;
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(@NotNull Consumer<? super Map.Entry<String, Object>> action) {
+            Preconditions.checkArgument(action != null, "Action cannot be null");
+
+            if (children != null) {
+                if (children.tryAdvance(action)) {
+                    return true;
+                }
+                children = null;
+            }
+            load();
+            if (index >= fence) {
+                return false;
+            }
+
+            @SuppressWarnings("unchecked")
+            Map.Entry<String, SectionPathData> entry = (Map.Entry<String, SectionPathData>) entries[index++];
+            String path = childPath(entry.getKey());
+            Object value = entry.getValue().getData();
+            action.accept(new AbstractMap.SimpleImmutableEntry<String, Object>(path, value));
+
+            if (deep && value instanceof ConfigurationSection) {
+                children = childSpliterator(entry.getKey(), (ConfigurationSection) value, path);
+            }
+            return true;
+        }
+
+        @Override
+        @Nullable
+        public Spliterator<Map.Entry<String, Object>> trySplit() {
+            load();
+            if (children != null) {
+                if (index < fence) {
+                    // The rest of the current subtree precedes the remaining entries
+                    Spliterator<Map.Entry<String, Object>> result = children;
+                    children = null;
+                    return result;
+                }
+                return children.trySplit();
+            }
+
+            int remaining = fence - index;
+            if (remaining >= 2) {
+                int middle = (index + fence) >>> 1;
+                ValueSpliterator result = new ValueSpliterator(this, deep, index, middle, deep ? estimate >>>= 1 : middle - index);
+                index = middle;
+                return result;
+            }
+
+            if (remaining == 1 && deep) {
+                @SuppressWarnings("unchecked")
+                Map.Entry<String, SectionPathData> entry = (Map.Entry<String, SectionPathData>) entries[index];
+                if (entry.getValue().isSection()) {
+                    // Hand out the section itself, keeping its values
+                    ValueSpliterator result = new ValueSpliterator(this, false, index, index + 1, 1);
+                    index++;
+                    children = childSpliterator(entry.getKey(), (ConfigurationSection) entry.getValue().getData(), childPath(entry.getKey()));
+                    return result;
+                }
+            }
+            return null;
+        }
+
+        @NotNull
+        private String childPath(@NotNull String key) {
+            return prefix.isEmpty() ? key : prefix + root.options().pathSeparator() + key;
+        }
+
+        @NotNull
+        private Spliterator<Map.Entry<String, Object>> childSpliterator(@NotNull String key, @NotNull ConfigurationSection subsection, @NotNull String path) {
+            if (subsection instanceof MemorySection) {
+                return new ValueSpliterator((MemorySection) subsection, childPrefix(section, key, subsection, path), true, estimate);
+            }
+
+            Map<String, Object> values = subsection.getValues(true);
+            List<Map.Entry<String, Object>> result = new ArrayList<Map.Entry<String, Object>>(values.size());
+            for (Map.Entry<String, Object> value : values.entrySet()) {
+                result.add(new AbstractMap.SimpleImmutableEntry<String, Object>(createPath(subsection, value.getKey(), MemorySection.this), value.getValue()));
+            }
+            return result.spliterator();
+        }
+
+        @Override
+        public long estimateSize() {
+            if (!deep) {
+                return (fence == -1) ? section.map.size() : fence - index;
+            }
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return deep ? (ORDERED | NONNULL) : (ORDERED | NONNULL | SIZED | SUBSIZED);
+        }
+    }
+
+    /**
+     * Walks every path below this section in the same order as {@link
+     * #getKeys(boolean)}, building each path only when it is reached.
+     */
+    private final class DeepIterator implements Iterator<String> {
+        private final Deque<Iterator<Map.Entry<String, SectionPathData>>> iterators = new ArrayDeque<Iterator<Map.Entry<String, SectionPathData>>>();
+        private final Deque<MemorySection> sections = new ArrayDeque<MemorySection>();
+        private final Deque<String> prefixes = new ArrayDeque<String>();
+        private final char separator = root.options().pathSeparator();
+        // Values of a section that is not a MemorySection, which are copied as a whole
+        private Iterator<Map.Entry<String, Object>> foreign;
+        private SectionPathData current;
+        private Object foreignValue;
+
+        DeepIterator() {
+            iterators.push(map.entrySet().iterator());
+            sections.push(MemorySection.this);
+            prefixes.push("");
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (foreign != null) {
+                if (foreign.hasNext()) {
+                    return true;
+                }
+                foreign = null;
+            }
+            while (!iterators.isEmpty() && !iterators.peek().hasNext()) {
+                iterators.pop();
+                sections.pop();
+                prefixes.pop();
+            }
+            return !iterators.isEmpty();
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (foreign != null) {
+                Map.Entry<String, Object> entry = foreign.next();
+                current = null;
+                foreignValue = entry.getValue();
+                return entry.getKey();
+            }
+
+            Map.Entry<String, SectionPathData> entry = iterators.peek().next();
+            String prefix = prefixes.peek();
+            String path = prefix.isEmpty() ? entry.getKey() : prefix + separator + entry.getKey();
+            current = entry.getValue();
+
+            if (current.isSection()) {
+                ConfigurationSection subsection = (ConfigurationSection) current.getData();
+                if (subsection instanceof MemorySection) {
+                    String childPrefix = childPrefix(sections.peek(), entry.getKey(), subsection, path);
+                    iterators.push(((MemorySection) subsection).map.entrySet().iterator());
+                    sections.push((MemorySection) subsection);
+                    prefixes.push(childPrefix);
+                } else {
+                    Map<String, Object> values = subsection.getValues(true);
+                    List<Map.Entry<String, Object>> paths = new ArrayList<Map.Entry<String, Object>>(values.size());
+                    for (Map.Entry<String, Object> value : values.entrySet()) {
+                        paths.add(new AbstractMap.SimpleImmutableEntry<String, Object>(createPath(subsection, value.getKey(), MemorySection.this), value.getValue()));
+                    }
+                    foreign = paths.iterator();
+                }
+            }
+            return path;
+        }
+
+        /**
+         * Gets the value at the path last returned by {@link #next()}.
+         */
+        @Nullable
+        Object value() {
+            return (current == null) ? foreignValue : current.getData();
+        }
+    }
+
     @Override
     public boolean contains(@NotNull String path) {
         return contains(path, false);
@@ -114,11 +626,35 @@ public class MemorySection implements ConfigurationSection {
 
     @Override
     public boolean contains(@NotNull String path, boolean ignoreDefault) {
-        return ((ignoreDefault) ? get(path, null) : get(path)) != null;
+        Preconditions.checkArgument(path != null, "Path cannot be null");
+
+        if (path.length() == 0 || getSectionPathData(path) != null) {
+            return true;
+        }
+        return !ignoreDefault && getDefault(path) != null;
+    }
+
+    @Override
+    public boolean contains(@NotNull ConfigPath path) {
+        Preconditions.checkArgument(path != null, "Path cannot be null");
+
+        if (path.size() == 0 || getSectionPathData(path) != null) {
+            return true;
+        }
+        return getDefault(path) != null;
     }
 
     @Override
     public boolean isSet(@NotNull String path) {
+        Configuration root = getRoot();
+        if (root == null) {
+            return false;
+        }
+        return contains(path, !root.options().copyDefaults());
+    }
+
+    @Override
+    public boolean isSet(@NotNull ConfigPath path) {
         Configuration root = getRoot();
         if (root == null) {
             return false;
@@ -126,12 +662,19 @@ public class MemorySection implements ConfigurationSection {
         if (root.options().copyDefaults()) {
             return contains(path);
         }
-        return get(path, null) != null;
+        return path.size() == 0 || getSectionPathData(path) != null;
     }
 
     @Override
     @NotNull
     public String getCurrentPath() {
+        if (parent != null) {
+            char separator = root.options().pathSeparator();
+            if (separator != fullPathSeparator) {
+                fullPath = createPath(parent, path);
+                fullPathSeparator = separator;
+            }
+        }
         return fullPath;
     }
 
@@ -192,6 +735,141 @@ public class MemorySection implements ConfigurationSection {
         }
 
         final char separator = root.options().pathSeparator();
+        // no need to create missing sub-sections if we want to remove the value:
+        ConfigurationSection section = getOwningSection(path, separator, value != null);
+        if (section == null) {
+            return;
+        }
+
+        String key = path.substring(path.lastIndexOf(separator) + 1);
+        if (section instanceof MemorySection) {
+            ((MemorySection) section).setChild(key, value);
+        } else {
+            section.set(key, value);
+        }
+    }
+
+    @Override
+    public void set(@NotNull String path, int value) {
+        if (OVERRIDES_SET.get(getClass())) {
+            set(path, (Object) value);
+            return;
+        }
+        SectionPathData entry = prepareEntry(path);
+        if (entry != null) {
+            entry.setInt(value);
+        } else {
+            getOwningSection(path).set(getOwnedKey(path), value);
+        }
+    }
+
+    @Override
+    public void set(@NotNull String path, long value) {
+        if (OVERRIDES_SET.get(getClass())) {
+            set(path, (Object) value);
+            return;
+        }
+        SectionPathData entry = prepareEntry(path);
+        if (entry != null) {
+            entry.setLong(value);
+        } else {
+            getOwningSection(path).set(getOwnedKey(path), value);
+        }
+    }
+
+    @Override
+    public void set(@NotNull String path, double value) {
+        if (OVERRIDES_SET.get(getClass())) {
+            set(path, (Object) value);
+            return;
+        }
+        SectionPathData entry = prepareEntry(path);
+        if (entry != null) {
+            entry.setDouble(value);
+        } else {
+            getOwningSection(path).set(getOwnedKey(path), value);
+        }
+    }
+
+    @Override
+    public void set(@NotNull String path, boolean value) {
+        if (OVERRIDES_SET.get(getClass())) {
+            set(path, (Object) value);
+            return;
+        }
+        SectionPathData entry = prepareEntry(path);
+        if (entry != null) {
+            entry.setBoolean(value);
+        } else {
+            getOwningSection(path).set(getOwnedKey(path), value);
+        }
+    }
+
+    @Override
+    public void set(@NotNull String path, float value) {
+        set(path, (Object) value);
+    }
+
+    @Override
+    public void set(@NotNull String path, short value) {
+        set(path, (Object) value);
+    }
+
+    @Override
+    public void set(@NotNull String path, byte value) {
+        set(path, (Object) value);
+    }
+
+    @Override
+    public void set(@NotNull String path, char value) {
+        set(path, (Object) value);
+    }
+
+    /**
+     * Gets the entry a primitive value at the given path should be stored in,
+     * creating any missing section on the way.
+     *
+     * @param path Path of the value to set.
+     * @return The entry to store the value in, or null if the value is owned
+     *     by a section that is not a MemorySection.
+     */
+    @Nullable
+    private SectionPathData prepareEntry(@NotNull String path) {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(path), "Cannot set to an empty path");
+
+        ConfigurationSection section = getOwningSection(path);
+        if (section instanceof MemorySection) {
+            return ((MemorySection) section).childEntry(getOwnedKey(path), false);
+        }
+        return null;
+    }
+
+    @NotNull
+    private ConfigurationSection getOwningSection(@NotNull String path) {
+        Configuration root = getRoot();
+        if (root == null) {
+            throw new IllegalStateException("Cannot use section without a root");
+        }
+        return getOwningSection(path, root.options().pathSeparator(), true);
+    }
+
+    @NotNull
+    private String getOwnedKey(@NotNull String path) {
+        return path.substring(path.lastIndexOf(getRoot().options().pathSeparator()) + 1);
+    }
+
+    /**
+     * Walks to the section holding the last key of the given path.
+     *
+     * @param path Path to walk.
+     * @param separator Path separator.
+     * @param create Whether missing sections should be created.
+     * @return The owning section, or null if it is missing and create is
+     *     false.
+     */
+    @Nullable
+    @Contract("_, _, true -> !null")
+    private ConfigurationSection getOwningSection(@NotNull String path, char separator, boolean create) {
         // i1 is the leading (higher) index
         // i2 is the trailing (lower) index
         int i1 = -1, i2;
@@ -200,37 +878,111 @@ public class MemorySection implements ConfigurationSection {
             String node = path.substring(i2, i1);
             ConfigurationSection subSection = section.getConfigurationSection(node);
             if (subSection == null) {
-                if (value == null) {
-                    // no need to create missing sub-sections if we want to remove the value:
-                    return;
+                if (!create) {
+                    return null;
                 }
                 section = section.createSection(node);
             } else {
                 section = subSection;
             }
         }
+        return section;
+    }
 
-        String key = path.substring(i2);
-        if (section == this) {
-            if (value == null) {
-                map.remove(key);
+    @Override
+    public void set(@NotNull ConfigPath path, @Nullable Object value) {
+        Preconditions.checkArgument(path != null && path.size() > 0, "Cannot set to an empty path");
+
+        Configuration root = getRoot();
+        if (root == null) {
+            throw new IllegalStateException("Cannot use section without a root");
+        }
+
+        final int last = path.size() - 1;
+        ConfigurationSection section = this;
+        for (int i = 0; i < last; i++) {
+            if (!(section instanceof MemorySection)) {
+                section.set(path.join(i, section.getRoot().options().pathSeparator()), value);
+                return;
+            }
+            MemorySection memory = (MemorySection) section;
+            SectionPathData entry = memory.map.get(path.getKey(i));
+            if (entry != null && entry.isSection()) {
+                section = (ConfigurationSection) entry.getData();
+            } else if (value == null) {
+                // no need to create missing sub-sections if we want to remove the value:
+                return;
             } else {
-                SectionPathData entry = map.get(key);
-                if (entry == null) {
-                    map.put(key, new SectionPathData(value));
-                } else {
-                    entry.setData(value);
+                section = memory.createChild(path.getKey(i));
+            }
+        }
+
+        if (section instanceof MemorySection) {
+            ((MemorySection) section).setChild(path.getKey(last), value);
+        } else {
+            section.set(path.join(last, section.getRoot().options().pathSeparator()), value);
+        }
+    }
+
+    private void setChild(@NotNull String key, @Nullable Object value) {
+        PathIndex index = currentPathIndex();
+        if (value == null) {
+            SectionPathData removed = map.remove(key);
+            if (removed != null) {
+                modified();
+            }
+            if (index != null && removed != null) {
+                if (removed.isSection()) {
+                    invalidatePathIndex();
+                } else if (isAttached()) {
+                    index.remove(this, key);
                 }
             }
         } else {
-            section.set(key, value);
+            childEntry(key, value instanceof ConfigurationSection).setData(value);
+        }
+    }
+
+    /**
+     * Gets the entry of the given key to store a new value in, creating it if
+     * it is missing.
+     *
+     * @param key Key of the value.
+     * @param section Whether the new value is a ConfigurationSection.
+     * @return The entry of the key.
+     */
+    @NotNull
+    private SectionPathData childEntry(@NotNull String key, boolean section) {
+        modified();
+        PathIndex index = currentPathIndex();
+        SectionPathData entry = map.get(key);
+        if (entry == null) {
+            entry = new SectionPathData(null);
+            map.put(key, entry);
+            if (index != null) {
+                if (section) {
+                    invalidatePathIndex();
+                } else if (isAttached()) {
+                    index.put(this, key, entry);
+                }
+            }
+        } else if (index != null && (section || entry.isSection())) {
+            invalidatePathIndex();
         }
+        return entry;
     }
 
     @Override
     @Nullable
     public Object get(@NotNull String path) {
-        return get(path, getDefault(path));
+        Preconditions.checkArgument(path != null, "Path cannot be null");
+
+        if (path.length() == 0) {
+            return this;
+        }
+
+        SectionPathData entry = getSectionPathData(path);
+        return (entry == null) ? getDefault(path) : entry.getData();
     }
 
     @Override
@@ -243,33 +995,159 @@ public class MemorySection implements ConfigurationSection {
             return this;
         }
 
+        SectionPathData entry = getSectionPathData(path);
+        return (entry == null) ? def : entry.getData();
+    }
+
+    /**
+     * Gets the entry holding the value at the given path, ignoring defaults.
+     * <p>
+     * This is the single lookup used by every accessor of this section.
+     *
+     * @param path Path of the value.
+     * @return The entry, or null if there is no value at the path. Values of
+     *     a section that is not a MemorySection are wrapped in a new entry.
+     */
+    @Nullable
+    private SectionPathData getSectionPathData(@NotNull String path) {
+        Preconditions.checkArgument(path != null, "Path cannot be null");
+
         Configuration root = getRoot();
         if (root == null) {
             throw new IllegalStateException("Cannot access section without a root");
         }
 
+        if (root == this && root instanceof MemoryConfiguration) {
+            PathIndex index = ((MemoryConfiguration) root).pathIndex();
+            if (index != null) {
+                SectionPathData result = index.get(path);
+                if (result != null || index.isComplete()) {
+                    return result;
+                }
+            }
+        }
+
         final char separator = root.options().pathSeparator();
+        ConfigurationSection section = resolveOwner(path, separator);
+        if (section == null) {
+            return null;
+        }
+
+        String key = path.substring(path.lastIndexOf(separator) + 1);
+        if (section instanceof MemorySection) {
+            return ((MemorySection) section).map.get(key);
+        }
+        Object value = section.get(key, null);
+        return (value == null) ? null : new SectionPathData(value);
+    }
+
+    /**
+     * Walks to the existing section owning the last key of the given path,
+     * without creating any section or consulting the defaults.
+     *
+     * @param path Path to walk.
+     * @param separator Path separator.
+     * @return The owning section, or null if a section on the path is
+     *     missing.
+     */
+    @Nullable
+    private ConfigurationSection resolveOwner(@NotNull String path, char separator) {
         // i1 is the leading (higher) index
         // i2 is the trailing (lower) index
         int i1 = -1, i2;
         ConfigurationSection section = this;
         while ((i1 = path.indexOf(separator, i2 = i1 + 1)) != -1) {
             final String currentPath = path.substring(i2, i1);
-            if (!section.contains(currentPath, true)) {
-                return def;
+            if (section instanceof MemorySection) {
+                SectionPathData entry = ((MemorySection) section).map.get(currentPath);
+                if (entry == null || !entry.isSection()) {
+                    return null;
+                }
+                section = (ConfigurationSection) entry.getData();
+            } else {
+                if (!section.contains(currentPath, true)) {
+                    return null;
+                }
+                section = section.getConfigurationSection(currentPath);
+                if (section == null) {
+                    return null;
+                }
             }
-            section = section.getConfigurationSection(currentPath);
-            if (section == null) {
-                return def;
+        }
+        return section;
+    }
+
+    @Override
+    @Nullable
+    public Object get(@NotNull ConfigPath path) {
+        Preconditions.checkArgument(path != null, "Path cannot be null");
+
+        if (path.size() == 0) {
+            return this;
+        }
+
+        SectionPathData entry = getSectionPathData(path);
+        return (entry == null) ? getDefault(path) : entry.getData();
+    }
+
+    @Override
+    @Contract("_, !null -> !null")
+    @Nullable
+    public Object get(@NotNull ConfigPath path, @Nullable Object def) {
+        Preconditions.checkArgument(path != null, "Path cannot be null");
+
+        if (path.size() == 0) {
+            return this;
+        }
+
+        SectionPathData entry = getSectionPathData(path);
+        return (entry == null) ? def : entry.getData();
+    }
+
+    /**
+     * Gets the entry holding the value at the given path, ignoring defaults.
+     *
+     * @param path Path of the value.
+     * @return The entry, or null if there is no value at the path. Values of
+     *     a section that is not a MemorySection are wrapped in a new entry.
+     */
+    @Nullable
+    private SectionPathData getSectionPathData(@NotNull ConfigPath path) {
+        Preconditions.checkArgument(path != null, "Path cannot be null");
+
+        final int size = path.size();
+
+        Configuration root = getRoot();
+        if (root == null) {
+            throw new IllegalStateException("Cannot access section without a root");
+        }
+
+        if (root == this && root instanceof MemoryConfiguration && path.getSeparator() == root.options().pathSeparator()) {
+            PathIndex index = ((MemoryConfiguration) root).pathIndex();
+            if (index != null) {
+                SectionPathData result = index.get(path.toString());
+                if (result != null || index.isComplete()) {
+                    return result;
+                }
             }
         }
 
-        String key = path.substring(i2);
-        if (section == this) {
-            SectionPathData result = map.get(key);
-            return (result == null) ? def : result.getData();
+        ConfigurationSection section = this;
+        for (int i = 0; i < size; i++) {
+            if (!(section instanceof MemorySection)) {
+                Object value = section.get(path.join(i, section.getRoot().options().pathSeparator()), null);
+                return (value == null) ? null : new SectionPathData(value);
+            }
+            SectionPathData entry = ((MemorySection) section).map.get(path.getKey(i));
+            if (entry == null || i == size - 1) {
+                return entry;
+            }
+            if (!entry.isSection()) {
+                return null;
+            }
+            section = (ConfigurationSection) entry.getData();
         }
-        return section.get(key, def);
+        return null;
     }
 
     @Override
@@ -298,13 +1176,120 @@ public class MemorySection implements ConfigurationSection {
 
         String key = path.substring(i2);
         if (section == this) {
-            ConfigurationSection result = new MemorySection(this, key);
-            map.put(key, new SectionPathData(result));
-            return result;
+            return createChild(key);
         }
         return section.createSection(key);
     }
 
+    @NotNull
+    private MemorySection createChild(@NotNull String key) {
+        MemorySection result = new MemorySection(this, key);
+        SectionPathData entry = new SectionPathData(result);
+        SectionPathData previous = map.put(key, entry);
+        modified();
+
+        PathIndex index = currentPathIndex();
+        if (index != null) {
+            if (previous != null && previous.isSection()) {
+                invalidatePathIndex();
+            } else if (isAttached()) {
+                index.put(this, key, entry);
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private PathIndex currentPathIndex() {
+        if (!(root instanceof MemoryConfiguration)) {
+            return null;
+        }
+        PathIndex index = ((MemoryConfiguration) root).currentPathIndex();
+        return (index == null || isLoading()) ? null : index;
+    }
+
+    private void invalidatePathIndex() {
+        if (root instanceof MemoryConfiguration && !isLoading()) {
+            ((MemoryConfiguration) root).invalidatePathIndex();
+        }
+    }
+
+    /**
+     * Checks whether the values of this section have not been loaded yet,
+     * see {@link #deferValues(MemorySection, Runnable)}.
+     *
+     * @return True if the values are deferred to a loader.
+     */
+    boolean hasDeferredValues() {
+        return map instanceof SectionMap && ((SectionMap) map).isDeferred();
+    }
+
+    /**
+     * Checks whether the calling thread is loading the deferred values of
+     * this section or of a section holding it. The index of full paths
+     * leaves out deferred sections, so loading them leaves the index alone,
+     * and reading a configuration never changes it.
+     *
+     * @return True if the section is being loaded.
+     */
+    private boolean isLoading() {
+        ConfigurationSection section = this;
+        while (section instanceof MemorySection) {
+            MemorySection memory = (MemorySection) section;
+            if (memory.map instanceof SectionMap && ((SectionMap) memory.map).isLoading()) {
+                return true;
+            }
+            section = memory.parent;
+        }
+        return false;
+    }
+
+    /**
+     * Counts a change of this section, and of every section holding it.
+     */
+    private void modified() {
+        MemorySection section = this;
+        while (true) {
+            section.modifications++;
+            if (section == root || !(section.parent instanceof MemorySection)) {
+                return;
+            }
+            section = (MemorySection) section.parent;
+        }
+    }
+
+    /**
+     * Counts a change of the comments at the given path.
+     */
+    private void commentsModified(@NotNull String path) {
+        ConfigurationSection owner = resolveOwner(path, getRoot().options().pathSeparator());
+        if (owner instanceof MemorySection) {
+            ((MemorySection) owner).modified();
+        }
+    }
+
+    /**
+     * Checks that this section can still be reached from its root, as a
+     * section that was replaced keeps its parent but no longer belongs to the
+     * tree.
+     *
+     * @return True if every parent of this section still holds it.
+     */
+    private boolean isAttached() {
+        for (MemorySection section = this; section != root; ) {
+            if (!(section.parent instanceof MemorySection)) {
+                return false;
+            }
+            MemorySection parent = (MemorySection) section.parent;
+            SectionPathData entry = parent.map.get(section.path);
+            if (entry == null || entry.getData() != section) {
+                return false;
+            }
+            section = parent;
+        }
+        return true;
+    }
+
     @Override
     @NotNull
     public ConfigurationSection createSection(@NotNull String path, @NotNull Map<?, ?> map) {
@@ -325,8 +1310,8 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @Nullable
     public String getString(@NotNull String path) {
-        Object def = getDefault(path);
-        return getString(path, def != null ? def.toString() : null);
+        Object val = get(path);
+        return (val != null) ? val.toString() : null;
     }
 
     @Override
@@ -337,6 +1322,21 @@ public class MemorySection implements ConfigurationSection {
         return (val != null) ? val.toString() : def;
     }
 
+    @Override
+    @Nullable
+    public String getString(@NotNull ConfigPath path) {
+        Object val = get(path);
+        return (val != null) ? val.toString() : null;
+    }
+
+    @Override
+    @Contract("_, !null -> !null")
+    @Nullable
+    public String getString(@NotNull ConfigPath path, @Nullable String def) {
+        Object val = get(path, null);
+        return (val != null) ? val.toString() : def;
+    }
+
     @Override
     public boolean isString(@NotNull String path) {
         Object val = get(path);
@@ -345,14 +1345,56 @@ public class MemorySection implements ConfigurationSection {
 
     @Override
     public int getInt(@NotNull String path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isNumber()) {
+            return entry.intValue();
+        }
         Object def = getDefault(path);
-        return getInt(path, (def instanceof Number) ? toInt(def) : 0);
+        return (def instanceof Number) ? toInt(def) : 0;
     }
 
     @Override
     public int getInt(@NotNull String path, int def) {
-        Object val = get(path, def);
-        return (val instanceof Number) ? toInt(val) : def;
+        SectionPathData entry = getSectionPathData(path);
+        return (entry != null && entry.isNumber()) ? entry.intValue() : def;
+    }
+
+    @Override
+    @NotNull
+    public OptionalInt getOptionalInt(@NotNull String path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isNumber()) {
+            return OptionalInt.of(entry.intValue());
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? OptionalInt.of(toInt(def)) : OptionalInt.empty();
+    }
+
+    @Override
+    public int getInt(@NotNull ConfigPath path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isNumber()) {
+            return entry.intValue();
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? toInt(def) : 0;
+    }
+
+    @Override
+    public int getInt(@NotNull ConfigPath path, int def) {
+        SectionPathData entry = getSectionPathData(path);
+        return (entry != null && entry.isNumber()) ? entry.intValue() : def;
+    }
+
+    @Override
+    @NotNull
+    public OptionalInt getOptionalInt(@NotNull ConfigPath path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isNumber()) {
+            return OptionalInt.of(entry.intValue());
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? OptionalInt.of(toInt(def)) : OptionalInt.empty();
     }
 
     @Override
@@ -363,14 +1405,34 @@ public class MemorySection implements ConfigurationSection {
 
     @Override
     public boolean getBoolean(@NotNull String path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isBoolean()) {
+            return entry.booleanValue();
+        }
         Object def = getDefault(path);
-        return getBoolean(path, (def instanceof Boolean) ? (Boolean) def : false);
+        return (def instanceof Boolean) ? (Boolean) def : false;
     }
 
     @Override
     public boolean getBoolean(@NotNull String path, boolean def) {
-        Object val = get(path, def);
-        return (val instanceof Boolean) ? (Boolean) val : def;
+        SectionPathData entry = getSectionPathData(path);
+        return (entry != null && entry.isBoolean()) ? entry.booleanValue() : def;
+    }
+
+    @Override
+    public boolean getBoolean(@NotNull ConfigPath path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isBoolean()) {
+            return entry.booleanValue();
+        }
+        Object def = getDefault(path);
+        return (def instanceof Boolean) ? (Boolean) def : false;
+    }
+
+    @Override
+    public boolean getBoolean(@NotNull ConfigPath path, boolean def) {
+        SectionPathData entry = getSectionPathData(path);
+        return (entry != null && entry.isBoolean()) ? entry.booleanValue() : def;
     }
 
     @Override
@@ -381,14 +1443,56 @@ public class MemorySection implements ConfigurationSection {
 
     @Override
     public double getDouble(@NotNull String path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isNumber()) {
+            return entry.doubleValue();
+        }
         Object def = getDefault(path);
-        return getDouble(path, (def instanceof Number) ? toDouble(def) : 0);
+        return (def instanceof Number) ? toDouble(def) : 0;
     }
 
     @Override
     public double getDouble(@NotNull String path, double def) {
-        Object val = get(path, def);
-        return (val instanceof Number) ? toDouble(val) : def;
+        SectionPathData entry = getSectionPathData(path);
+        return (entry != null && entry.isNumber()) ? entry.doubleValue() : def;
+    }
+
+    @Override
+    @NotNull
+    public OptionalDouble getOptionalDouble(@NotNull String path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isNumber()) {
+            return OptionalDouble.of(entry.doubleValue());
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? OptionalDouble.of(toDouble(def)) : OptionalDouble.empty();
+    }
+
+    @Override
+    public double getDouble(@NotNull ConfigPath path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isNumber()) {
+            return entry.doubleValue();
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? toDouble(def) : 0;
+    }
+
+    @Override
+    public double getDouble(@NotNull ConfigPath path, double def) {
+        SectionPathData entry = getSectionPathData(path);
+        return (entry != null && entry.isNumber()) ? entry.doubleValue() : def;
+    }
+
+    @Override
+    @NotNull
+    public OptionalDouble getOptionalDouble(@NotNull ConfigPath path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isNumber()) {
+            return OptionalDouble.of(entry.doubleValue());
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? OptionalDouble.of(toDouble(def)) : OptionalDouble.empty();
     }
 
     @Override
@@ -399,14 +1503,56 @@ public class MemorySection implements ConfigurationSection {
 
     @Override
     public long getLong(@NotNull String path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isNumber()) {
+            return entry.longValue();
+        }
         Object def = getDefault(path);
-        return getLong(path, (def instanceof Number) ? toLong(def) : 0);
+        return (def instanceof Number) ? toLong(def) : 0;
     }
 
     @Override
     public long getLong(@NotNull String path, long def) {
-        Object val = get(path, def);
-        return (val instanceof Number) ? toLong(val) : def;
+        SectionPathData entry = getSectionPathData(path);
+        return (entry != null && entry.isNumber()) ? entry.longValue() : def;
+    }
+
+    @Override
+    @NotNull
+    public OptionalLong getOptionalLong(@NotNull String path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isNumber()) {
+            return OptionalLong.of(entry.longValue());
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? OptionalLong.of(toLong(def)) : OptionalLong.empty();
+    }
+
+    @Override
+    public long getLong(@NotNull ConfigPath path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isNumber()) {
+            return entry.longValue();
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? toLong(def) : 0;
+    }
+
+    @Override
+    public long getLong(@NotNull ConfigPath path, long def) {
+        SectionPathData entry = getSectionPathData(path);
+        return (entry != null && entry.isNumber()) ? entry.longValue() : def;
+    }
+
+    @Override
+    @NotNull
+    public OptionalLong getOptionalLong(@NotNull ConfigPath path) {
+        SectionPathData entry = getSectionPathData(path);
+        if (entry != null && entry.isNumber()) {
+            return OptionalLong.of(entry.longValue());
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? OptionalLong.of(toLong(def)) : OptionalLong.empty();
     }
 
     @Override
@@ -419,8 +1565,12 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @Nullable
     public List<?> getList(@NotNull String path) {
+        Object val = get(path, null);
+        if (val instanceof List) {
+            return (List<?>) val;
+        }
         Object def = getDefault(path);
-        return getList(path, (def instanceof List) ? (List<?>) def : null);
+        return (def instanceof List) ? (List<?>) def : null;
     }
 
     @Override
@@ -431,6 +1581,25 @@ public class MemorySection implements ConfigurationSection {
         return (List<?>) ((val instanceof List) ? val : def);
     }
 
+    @Override
+    @Nullable
+    public List<?> getList(@NotNull ConfigPath path) {
+        Object val = get(path, null);
+        if (val instanceof List) {
+            return (List<?>) val;
+        }
+        Object def = getDefault(path);
+        return (def instanceof List) ? (List<?>) def : null;
+    }
+
+    @Override
+    @Contract("_, !null -> !null")
+    @Nullable
+    public List<?> getList(@NotNull ConfigPath path, @Nullable List<?> def) {
+        Object val = get(path, null);
+        return (List<?>) ((val instanceof List) ? val : def);
+    }
+
     @Override
     public boolean isList(@NotNull String path) {
         Object val = get(path);
@@ -709,8 +1878,12 @@ public class MemorySection implements ConfigurationSection {
     @Override
     public <T extends Object> T getObject(@NotNull String path, @NotNull Class<T> clazz) {
         Preconditions.checkArgument(clazz != null, "Class cannot be null");
+        Object val = get(path, null);
+        if (val != null && clazz.isInstance(val)) {
+            return clazz.cast(val);
+        }
         Object def = getDefault(path);
-        return getObject(path, clazz, (def != null && clazz.isInstance(def)) ? clazz.cast(def) : null);
+        return (def != null && clazz.isInstance(def)) ? clazz.cast(def) : null;
     }
 
     @Contract("_, _, !null -> !null")
@@ -743,16 +1916,151 @@ public class MemorySection implements ConfigurationSection {
             return (val instanceof ConfigurationSection) ? (ConfigurationSection) val : null;
         }
 
-        val = get(path, getDefault(path));
+        val = getDefault(path);
         return (val instanceof ConfigurationSection) ? createSection(path) : null;
     }
 
+    @Override
+    @Nullable
+    public ConfigurationSection getConfigurationSection(@NotNull ConfigPath path) {
+        Object val = get(path, null);
+        if (val != null) {
+            return (val instanceof ConfigurationSection) ? (ConfigurationSection) val : null;
+        }
+
+        val = getDefault(path);
+        return (val instanceof ConfigurationSection) ? createSection(path.join(0, getRoot().options().pathSeparator())) : null;
+    }
+
     @Override
     public boolean isConfigurationSection(@NotNull String path) {
         Object val = get(path);
         return val instanceof ConfigurationSection;
     }
 
+    /**
+     * Defers loading the values of the given section until they are first
+     * accessed, in any way.
+     * <p>
+     * Any values the section holds are removed. The loader is run once,
+     * before the first access, and is expected to set the values of the
+     * section. If it throws an exception, the section is left empty and the
+     * loader is run again on the next access.
+     *
+     * @param section Section whose values are loaded later.
+     * @param loader Loader setting the values of the section.
+     * @throws IllegalArgumentException Thrown if section or loader is null.
+     */
+    protected static void deferValues(@NotNull MemorySection section, @NotNull Runnable loader) {
+        Preconditions.checkArgument(section != null, "Section cannot be null");
+        Preconditions.checkArgument(loader != null, "Loader cannot be null");
+
+        ((SectionMap) section.map).defer(loader);
+        section.modified();
+        section.invalidatePathIndex();
+    }
+
+    /**
+     * Sets the comments of a value while it is loaded, like {@link
+     * #setComments(String, List)} and {@link #setInlineComments(String,
+     * List)} do. A key directly within the section is looked up among its
+     * own values, so that loading does not build the index of full paths.
+     *
+     * @param section Section holding the value.
+     * @param path Path of the value.
+     * @param comments Comments above the value.
+     * @param inlineComments Comments beside the value.
+     * @throws IllegalArgumentException Thrown if section or path is null.
+     */
+    protected static void setLoadedComments(@NotNull MemorySection section, @NotNull String path, @Nullable List<String> comments, @Nullable List<String> inlineComments) {
+        Preconditions.checkArgument(section != null, "Section cannot be null");
+        Preconditions.checkArgument(path != null, "Path cannot be null");
+
+        char separator = section.getRoot().options().pathSeparator();
+        ConfigurationSection owner = section.getOwningSection(path, separator, false);
+        if (owner == null) {
+            return;
+        }
+        String key = path.substring(path.lastIndexOf(separator) + 1);
+        if (owner instanceof MemorySection) {
+            SectionPathData entry = ((MemorySection) owner).map.get(key);
+            if (entry != null) {
+                entry.setComments(comments);
+                entry.setInlineComments(inlineComments);
+                ((MemorySection) owner).modified();
+            }
+        } else {
+            owner.setComments(key, comments);
+            owner.setInlineComments(key, inlineComments);
+        }
+    }
+
+    /**
+     * Sets the value at the given path to a value which is only created once
+     * it is first requested, like {@link #set(String, Object)} does.
+     * <p>
+     * The supplier is called at most once, and must not return null or a
+     * {@link ConfigurationSection}. If the path is not held by a
+     * MemorySection, the value is created right away.
+     *
+     * @param section Section to set the value in.
+     * @param path Path of the value.
+     * @param value Supplier of the value.
+     * @throws IllegalArgumentException Thrown if any argument is null, or if
+     *     the path is empty.
+     * @see #getDeferred(MemorySection, String)
+     */
+    protected static void setDeferred(@NotNull MemorySection section, @NotNull String path, @NotNull Supplier<?> value) {
+        Preconditions.checkArgument(section != null, "Section cannot be null");
+        Preconditions.checkArgument(path != null && !path.isEmpty(), "Cannot set to an empty path");
+        Preconditions.checkArgument(value != null, "Value cannot be null");
+
+        char separator = section.getRoot().options().pathSeparator();
+        ConfigurationSection owner = section.getOwningSection(path, separator, true);
+        String key = path.substring(path.lastIndexOf(separator) + 1);
+        if (owner instanceof MemorySection) {
+            ((MemorySection) owner).childEntry(key, false).setDeferred(value);
+        } else {
+            owner.set(key, value.get());
+        }
+    }
+
+    /**
+     * Gets the supplier a value was set from with {@link
+     * #setDeferred(MemorySection, String, Supplier)}, as long as the value
+     * was not replaced since. This does not create the value.
+     *
+     * @param section Section holding the value.
+     * @param key Key of the value directly within the section.
+     * @return The supplier of the value, or null.
+     * @throws IllegalArgumentException Thrown if section or key is null.
+     */
+    @Nullable
+    protected static Supplier<?> getDeferred(@NotNull MemorySection section, @NotNull String key) {
+        Preconditions.checkArgument(section != null, "Section cannot be null");
+        Preconditions.checkArgument(key != null, "Key cannot be null");
+
+        SectionPathData entry = section.map.get(key);
+        return (entry == null) ? null : entry.getDeferred();
+    }
+
+    /**
+     * Gets the number of changes made to the values and comments of the given
+     * section and of its subsections, through this class. Two calls
+     * returning the same number mean that the section was not changed in
+     * between, unless a value held by it was modified in place, such as a
+     * list.
+     *
+     * @param section Section to check.
+     * @return The number of changes.
+     * @throws IllegalArgumentException Thrown if section is null.
+     */
+    protected static int getModifications(@NotNull MemorySection section) {
+        Preconditions.checkArgument(section != null, "Section cannot be null");
+
+        return section.modifications;
+    }
+
     protected boolean isPrimitiveWrapper(@Nullable Object input) {
         return input instanceof Integer || input instanceof Boolean
                 || input instanceof Character || input instanceof Byte
@@ -769,16 +2077,34 @@ public class MemorySection implements ConfigurationSection {
         return (defaults == null) ? null : defaults.get(createPath(this, path));
     }
 
+    @Nullable
+    protected Object getDefault(@NotNull ConfigPath path) {
+        Preconditions.checkArgument(path != null, "Path cannot be null");
+
+        Configuration root = getRoot();
+        Configuration defaults = root == null ? null : root.getDefaults();
+        if (defaults == null) {
+            return null;
+        }
+        return defaults.get((root == this) ? path : ConfigPath.of(getCurrentPath(), root.options().pathSeparator()).resolve(path));
+    }
+
     protected void mapChildrenKeys(@NotNull Set<String> output, @NotNull ConfigurationSection section, boolean deep) {
+        mapChildrenKeys(output, section, createPath(section, null, this), deep);
+    }
+
+    private void mapChildrenKeys(@NotNull Set<String> output, @NotNull ConfigurationSection section, @NotNull String prefix, boolean deep) {
         if (section instanceof MemorySection) {
             MemorySection sec = (MemorySection) section;
+            char separator = root.options().pathSeparator();
 
             for (Map.Entry<String, SectionPathData> entry : sec.map.entrySet()) {
-                output.add(createPath(section, entry.getKey(), this));
+                String childPath = prefix.isEmpty() ? entry.getKey() : prefix + separator + entry.getKey();
+                output.add(childPath);
 
-                if ((deep) && (entry.getValue().getData() instanceof ConfigurationSection)) {
+                if ((deep) && (entry.getValue().isSection())) {
                     ConfigurationSection subsection = (ConfigurationSection) entry.getValue().getData();
-                    mapChildrenKeys(output, subsection, deep);
+                    mapChildrenKeys(output, subsection, childPrefix(sec, entry.getKey(), subsection, childPath), deep);
                 }
             }
         } else {
@@ -791,20 +2117,26 @@ public class MemorySection implements ConfigurationSection {
     }
 
     protected void mapChildrenValues(@NotNull Map<String, Object> output, @NotNull ConfigurationSection section, boolean deep) {
+        mapChildrenValues(output, section, createPath(section, null, this), deep);
+    }
+
+    private void mapChildrenValues(@NotNull Map<String, Object> output, @NotNull ConfigurationSection section, @NotNull String prefix, boolean deep) {
         if (section instanceof MemorySection) {
             MemorySection sec = (MemorySection) section;
+            char separator = root.options().pathSeparator();
 
             for (Map.Entry<String, SectionPathData> entry : sec.map.entrySet()) {
                 // Because of the copyDefaults call potentially copying out of order, we must remove and then add in our saved order
                 // This means that default values we haven't set end up getting placed first
                 // See SPIGOT-4558 for an example using spigot.yml - watch subsections move around to default order
-                String childPath = createPath(section, entry.getKey(), this);
+                String childPath = prefix.isEmpty() ? entry.getKey() : prefix + separator + entry.getKey();
                 output.remove(childPath);
                 output.put(childPath, entry.getValue().getData());
 
-                if (entry.getValue().getData() instanceof ConfigurationSection) {
+                if (entry.getValue().isSection()) {
                     if (deep) {
-                        mapChildrenValues(output, (ConfigurationSection) entry.getValue().getData(), deep);
+                        ConfigurationSection subsection = (ConfigurationSection) entry.getValue().getData();
+                        mapChildrenValues(output, subsection, childPrefix(sec, entry.getKey(), subsection, childPath), deep);
                     }
                 }
             }
@@ -817,6 +2149,18 @@ public class MemorySection implements ConfigurationSection {
         }
     }
 
+    /**
+     * Gets the path of a subsection relative to this section, reusing the
+     * path of its entry when the subsection was created by its parent.
+     */
+    @NotNull
+    private String childPrefix(@NotNull MemorySection parent, @NotNull String key, @NotNull ConfigurationSection subsection, @NotNull String childPath) {
+        if (subsection.getParent() == parent && key.equals(subsection.getName())) {
+            return childPath;
+        }
+        return createPath(subsection, null, this);
+    }
+
     /**
      * Creates a full path to the given {@link ConfigurationSection} from its
      * root {@link Configuration}.
@@ -854,12 +2198,30 @@ public class MemorySection implements ConfigurationSection {
         }
         char separator = root.options().pathSeparator();
 
-        StringBuilder builder = new StringBuilder();
-        for (ConfigurationSection parent = section; (parent != null) && (parent != relativeTo); parent = parent.getParent()) {
-            if (builder.length() > 0) {
-                builder.insert(0, separator);
+        StringBuilder builder;
+        if (section == relativeTo) {
+            builder = new StringBuilder();
+        } else if (section instanceof MemorySection && relativeTo == root) {
+            // The full path of a MemorySection is cached
+            builder = new StringBuilder(section.getCurrentPath());
+        } else {
+            // Collect the names first, inserting at the front of the builder is quadratic
+            List<String> names = new ArrayList<String>();
+            int deepest = -1;
+            for (ConfigurationSection parent = section; (parent != null) && (parent != relativeTo); parent = parent.getParent()) {
+                if (deepest == -1 && parent.getName().length() > 0) {
+                    deepest = names.size();
+                }
+                names.add(parent.getName());
+            }
+
+            builder = new StringBuilder();
+            for (int i = names.size() - 1; i >= 0; i--) {
+                builder.append(names.get(i));
+                if (i > deepest && deepest != -1) {
+                    builder.append(separator);
+                }
             }
-            builder.insert(0, parent.getName());
         }
 
         if ((key != null) && (key.length() > 0)) {
@@ -892,6 +2254,7 @@ public class MemorySection implements ConfigurationSection {
         final SectionPathData pathData = getSectionPathData(path);
         if (pathData != null) {
             pathData.setComments(comments);
+            commentsModified(path);
         }
     }
 
@@ -900,42 +2263,10 @@ public class MemorySection implements ConfigurationSection {
         final SectionPathData pathData = getSectionPathData(path);
         if (pathData != null) {
             pathData.setInlineComments(comments);
+            commentsModified(path);
         }
     }
 
-    @Nullable
-    private SectionPathData getSectionPathData(@NotNull String path) {
-        Preconditions.checkArgument(path != null, "Path cannot be null");
-
-        Configuration root = getRoot();
-        if (root == null) {
-            throw new IllegalStateException("Cannot access section without a root");
-        }
-
-        final char separator = root.options().pathSeparator();
-        // i1 is the leading (higher) index
-        // i2 is the trailing (lower) index
-        int i1 = -1, i2;
-        ConfigurationSection section = this;
-        while ((i1 = path.indexOf(separator, i2 = i1 + 1)) != -1) {
-            section = section.getConfigurationSection(path.substring(i2, i1));
-            if (section == null) {
-                return null;
-            }
-        }
-
-        String key = path.substring(i2);
-        if (section == this) {
-            SectionPathData entry = map.get(key);
-            if (entry != null) {
-                return entry;
-            }
-        } else if (section instanceof MemorySection) {
-            return ((MemorySection) section).getSectionPathData(key);
-        }
-        return null;
-    }
-
     @Override
     public String toString() {
         Configuration root = getRoot();
@@ -0,0 +1,123 @@
+package org.bukkit.configuration;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Maps the full path of every value of a {@link MemoryConfiguration} to its
+ * {@link SectionPathData}.
+ * <p>
+ * The index is complete as long as every section of the tree is a {@link
+ * MemorySection} whose values are loaded, in which case a missing path is
+ * known to be absent without walking the tree. Sections whose values are
+ * deferred are left out rather than loaded, and their values are not added
+ * once they are loaded. Paths are kept in the order of a depth-first walk for as
+ * long as values are only appended, which allows the key set to be used for
+ * {@link ConfigurationSection#getKeys(boolean)}.
+ */
+final class PathIndex {
+    private final Map<String, SectionPathData> paths = new LinkedHashMap<String, SectionPathData>();
+    private final char separator;
+    private boolean complete = true;
+    private boolean ordered = true;
+    private String lastPath = "";
+
+    private PathIndex(char separator) {
+        this.separator = separator;
+    }
+
+    /**
+     * Builds the index of every value below the given root.
+     *
+     * @param root Root section to index.
+     * @param separator Separator used to join the full paths.
+     * @return The new index.
+     */
+    @NotNull
+    static PathIndex build(@NotNull MemorySection root, char separator) {
+        PathIndex index = new PathIndex(separator);
+        index.addChildren(root, "");
+        return index;
+    }
+
+    private void addChildren(@NotNull MemorySection section, @NotNull String prefix) {
+        for (Map.Entry<String, SectionPathData> entry : section.map.entrySet()) {
+            String path = prefix.isEmpty() ? entry.getKey() : prefix + separator + entry.getKey();
+            paths.put(path, entry.getValue());
+            lastPath = path;
+
+            if (entry.getValue().isSection()) {
+                Object data = entry.getValue().getData();
+                if (data instanceof MemorySection && !((MemorySection) data).hasDeferredValues()) {
+                    addChildren((MemorySection) data, path);
+                } else {
+                    complete = false;
+                }
+            }
+        }
+    }
+
+    char separator() {
+        return separator;
+    }
+
+    /**
+     * Checks if a path missing from this index is known to be absent.
+     *
+     * @return True if every value of the tree is indexed.
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    @Nullable
+    SectionPathData get(@NotNull String path) {
+        return paths.get(path);
+    }
+
+    /**
+     * Gets the indexed paths, if they are in the same order as a walk of the
+     * tree would produce them.
+     *
+     * @return Unmodifiable set of every path, or null if the order is not
+     *     known.
+     */
+    @Nullable
+    Set<String> orderedPaths() {
+        return (complete && ordered) ? Collections.unmodifiableSet(paths.keySet()) : null;
+    }
+
+    /**
+     * Records a value that was put into the given section.
+     *
+     * @param section Section holding the value.
+     * @param key Key of the value within the section.
+     * @param data The stored value.
+     */
+    void put(@NotNull MemorySection section, @NotNull String key, @NotNull SectionPathData data) {
+        String parent = MemorySection.createPath(section, null);
+        String path = parent.isEmpty() ? key : parent + separator + key;
+
+        if (paths.put(path, data) == null && ordered) {
+            // Appending keeps the walk order only while the parent is on the path to the last value
+            ordered = lastPath.startsWith(parent)
+                    && (parent.isEmpty() || lastPath.length() == parent.length() || lastPath.charAt(parent.length()) == separator);
+            lastPath = path;
+        }
+    }
+
+    /**
+     * Forgets a value that was removed from the given section.
+     *
+     * @param section Section that held the value.
+     * @param key Key of the value within the section.
+     */
+    void remove(@NotNull MemorySection section, @NotNull String key) {
+        paths.remove(MemorySection.createPath(section, key));
+        ordered = false;
+    }
+}
@@ -0,0 +1,323 @@
+package org.bukkit.configuration;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The insertion ordered map holding the values of a {@link MemorySection}.
+ * <p>
+ * Most sections only hold a few keys, so the entries are kept in an array
+ * and looked up by a linear scan until there are more than {@link
+ * #COMPACT_LIMIT} of them. The map is then promoted to a {@link
+ * LinkedHashMap}, which it keeps using until it is cleared.
+ * <p>
+ * The entries may also be deferred to a loader, which is run the first time
+ * the map is accessed, see {@link #defer(Runnable)}. Like the other maps
+ * the map may be read by several threads as long as none changes it, so
+ * the loader is run while holding the lock of the map, and the entries are
+ * only visible to other threads once it finished.
+ */
+final class SectionMap extends AbstractMap<String, SectionPathData> {
+    static final int COMPACT_LIMIT = 8;
+    private static final Node[] EMPTY = new Node[0];
+
+    private Node[] nodes = EMPTY;
+    private int size;
+    private LinkedHashMap<String, SectionPathData> promoted;
+    private int modCount;
+    private Set<Map.Entry<String, SectionPathData>> entrySet;
+    private volatile Runnable loader;
+    /**
+     * Whether the loader is running, on the thread holding the lock.
+     */
+    private boolean loading;
+
+    /**
+     * Defers putting the entries of this map to the given loader, which is
+     * run before the map is accessed for the first time. If the loader
+     * fails, the map is left empty and the loader is run again on the next
+     * access.
+     *
+     * @param loader Loader putting the entries into this map.
+     */
+    void defer(@NotNull Runnable loader) {
+        clear();
+        this.loader = loader;
+    }
+
+    /**
+     * Checks whether the entries are deferred to a loader which has not
+     * finished yet.
+     *
+     * @return True if the loader is still pending.
+     */
+    boolean isDeferred() {
+        return loader != null;
+    }
+
+    /**
+     * Checks whether the calling thread is running the loader of this map.
+     *
+     * @return True if the loader is putting the entries.
+     */
+    boolean isLoading() {
+        return Thread.holdsLock(this) && loading;
+    }
+
+    private void materialize() {
+        if (loader != null) {
+            load();
+        }
+    }
+
+    private synchronized void load() {
+        Runnable loader = this.loader;
+        if (loader == null || loading) {
+            // loaded by another thread, or the loader is putting the entries
+            return;
+        }
+        loading = true;
+        try {
+            loader.run();
+            this.loader = null;
+        } catch (RuntimeException | Error e) {
+            clear();
+            this.loader = loader;
+            throw e;
+        } finally {
+            loading = false;
+        }
+    }
+
+    @Override
+    public int size() {
+        materialize();
+        return (promoted != null) ? promoted.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        materialize();
+        if (promoted != null) {
+            return promoted.containsKey(key);
+        }
+        return indexOf(key) != -1;
+    }
+
+    @Override
+    @Nullable
+    public SectionPathData get(Object key) {
+        materialize();
+        if (promoted != null) {
+            return promoted.get(key);
+        }
+        int index = indexOf(key);
+        return (index == -1) ? null : nodes[index].value;
+    }
+
+    @Override
+    @Nullable
+    public SectionPathData put(String key, SectionPathData value) {
+        materialize();
+        if (promoted != null) {
+            return promoted.put(key, value);
+        }
+
+        int index = indexOf(key);
+        if (index != -1) {
+            SectionPathData previous = nodes[index].value;
+            nodes[index].value = value;
+            return previous;
+        }
+
+        if (size == COMPACT_LIMIT) {
+            promote();
+            return promoted.put(key, value);
+        }
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, (size == 0) ? 2 : Math.min(size * 2, COMPACT_LIMIT));
+        }
+        nodes[size++] = new Node(key, value);
+        modCount++;
+        return null;
+    }
+
+    @Override
+    @Nullable
+    public SectionPathData remove(Object key) {
+        materialize();
+        if (promoted != null) {
+            return promoted.remove(key);
+        }
+
+        int index = indexOf(key);
+        if (index == -1) {
+            return null;
+        }
+        SectionPathData previous = nodes[index].value;
+        removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        loader = null;
+        promoted = null;
+        nodes = EMPTY;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    @NotNull
+    public Set<Map.Entry<String, SectionPathData>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<String, SectionPathData>>() {
+                @Override
+                @NotNull
+                public Iterator<Map.Entry<String, SectionPathData>> iterator() {
+                    materialize();
+                    return (promoted != null) ? promoted.entrySet().iterator() : new NodeIterator();
+                }
+
+                @Override
+                public int size() {
+                    return SectionMap.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    SectionMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private int indexOf(Object key) {
+        int hash = Objects.hashCode(key);
+        for (int i = 0; i < size; i++) {
+            String candidate = nodes[i].key;
+            if (candidate == key || (candidate != null && candidate.hashCode() == hash && candidate.equals(key))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(nodes, index + 1, nodes, index, size - index - 1);
+        nodes[--size] = null;
+        modCount++;
+    }
+
+    private void promote() {
+        promoted = new LinkedHashMap<String, SectionPathData>();
+        for (int i = 0; i < size; i++) {
+            promoted.put(nodes[i].key, nodes[i].value);
+        }
+        nodes = EMPTY;
+        size = 0;
+        modCount++;
+    }
+
+    private static final class Node implements Map.Entry<String, SectionPathData> {
+        private final String key;
+        private SectionPathData value;
+
+        Node(String key, SectionPathData value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public SectionPathData getValue() {
+            return value;
+        }
+
+        @Override
+        public SectionPathData setValue(SectionPathData value) {
+            SectionPathData previous = this.value;
+            this.value = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return Objects.equals(key, other.getKey()) && Objects.equals(value, other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private final class NodeIterator implements Iterator<Map.Entry<String, SectionPathData>> {
+        private int index;
+        private int lastReturned = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return index < size();
+        }
+
+        @Override
+        public Map.Entry<String, SectionPathData> next() {
+            checkForComodification();
+            if (index >= size) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = index;
+            return nodes[index++];
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == -1) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            removeAt(lastReturned);
+            index = lastReturned;
+            lastReturned = -1;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
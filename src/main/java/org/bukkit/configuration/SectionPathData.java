@@ -2,28 +2,267 @@ package org.bukkit.configuration;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 final class SectionPathData {
+    private static final byte OBJECT = 0;
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte DEFERRED = 5;
 
+    /**
+     * The stored value. For primitive values this is only a boxed copy,
+     * created the first time the value is requested as an Object.
+     */
     private Object data;
+    /**
+     * The raw bits of a primitive value, see {@link #type}.
+     */
+    private long primitive;
+    /**
+     * The type of the stored value. It is written after the value, so a
+     * thread seeing a deferred value created by another thread also sees
+     * the value, see {@link #resolve()}.
+     */
+    private volatile byte type;
+    /**
+     * The supplier of a deferred value, kept after the value was created
+     * until another value is stored, see {@link #setDeferred(Supplier)}.
+     */
+    private Supplier<?> deferred;
     private List<String> comments;
     private List<String> inlineComments;
 
     public SectionPathData(@Nullable Object data) {
-        this.data = data;
+        setData(data);
         comments = Collections.emptyList();
         inlineComments = Collections.emptyList();
     }
 
     @Nullable
     public Object getData() {
+        resolve();
+        if (data == null) {
+            switch (type) {
+                case INT:
+                    data = (int) primitive;
+                    break;
+                case LONG:
+                    data = primitive;
+                    break;
+                case DOUBLE:
+                    data = Double.longBitsToDouble(primitive);
+                    break;
+                case BOOLEAN:
+                    data = primitive != 0;
+                    break;
+                default:
+                    break;
+            }
+        }
         return data;
     }
 
     public void setData(@Nullable final Object data) {
+        store(data, null);
+    }
+
+    private void store(@Nullable Object data, @Nullable Supplier<?> deferred) {
         this.data = data;
+        this.deferred = deferred;
+        if (data instanceof Integer) {
+            primitive = (Integer) data;
+            type = INT;
+        } else if (data instanceof Long) {
+            primitive = (Long) data;
+            type = LONG;
+        } else if (data instanceof Double) {
+            primitive = Double.doubleToRawLongBits((Double) data);
+            type = DOUBLE;
+        } else if (data instanceof Boolean) {
+            primitive = ((Boolean) data) ? 1 : 0;
+            type = BOOLEAN;
+        } else {
+            primitive = 0;
+            type = OBJECT;
+        }
+    }
+
+    public void setInt(int value) {
+        data = null;
+        deferred = null;
+        primitive = value;
+        type = INT;
+    }
+
+    public void setLong(long value) {
+        data = null;
+        deferred = null;
+        primitive = value;
+        type = LONG;
+    }
+
+    public void setDouble(double value) {
+        data = null;
+        deferred = null;
+        primitive = Double.doubleToRawLongBits(value);
+        type = DOUBLE;
+    }
+
+    public void setBoolean(boolean value) {
+        data = null;
+        deferred = null;
+        primitive = value ? 1 : 0;
+        type = BOOLEAN;
+    }
+
+    /**
+     * Stores a value which is only created by the given supplier once it is
+     * first requested. The supplier must not return null or a {@link
+     * ConfigurationSection}.
+     *
+     * @param value Supplier of the value.
+     */
+    public void setDeferred(@NotNull Supplier<?> value) {
+        data = null;
+        deferred = value;
+        primitive = 0;
+        type = DEFERRED;
+    }
+
+    /**
+     * Gets the supplier of the stored value, if it was stored with {@link
+     * #setDeferred(Supplier)} and not replaced since. The value may already
+     * have been created.
+     *
+     * @return The supplier of the value, or null.
+     */
+    @Nullable
+    public Supplier<?> getDeferred() {
+        return deferred;
+    }
+
+    private void resolve() {
+        if (type == DEFERRED) {
+            create();
+        }
+    }
+
+    /**
+     * Creates a deferred value once, even if several threads read it.
+     */
+    private synchronized void create() {
+        if (type != DEFERRED) {
+            return;
+        }
+        Supplier<?> supplier = deferred;
+        Object value = supplier.get();
+        if (value == null || value instanceof ConfigurationSection) {
+            throw new IllegalStateException("Deferred value cannot be " + value);
+        }
+        store(value, supplier);
+    }
+
+    /**
+     * Checks if the stored value is a {@link Number}, without boxing it.
+     *
+     * @return True if the value is a Number.
+     */
+    public boolean isNumber() {
+        resolve();
+        return type == INT || type == LONG || type == DOUBLE || (type == OBJECT && data instanceof Number);
+    }
+
+    /**
+     * Checks if the stored value is a {@link Boolean}, without boxing it.
+     *
+     * @return True if the value is a Boolean.
+     */
+    public boolean isBoolean() {
+        resolve();
+        return type == BOOLEAN;
+    }
+
+    /**
+     * Checks if the stored value is a {@link ConfigurationSection}, without
+     * boxing primitive values.
+     *
+     * @return True if the value is a ConfigurationSection.
+     */
+    public boolean isSection() {
+        return type == OBJECT && data instanceof ConfigurationSection;
+    }
+
+    /**
+     * Gets the stored number as an int, the value must be a Number.
+     *
+     * @return The value as an int.
+     * @see #isNumber()
+     */
+    public int intValue() {
+        resolve();
+        switch (type) {
+            case INT:
+            case LONG:
+                return (int) primitive;
+            case DOUBLE:
+                return (int) Double.longBitsToDouble(primitive);
+            default:
+                return ((Number) data).intValue();
+        }
+    }
+
+    /**
+     * Gets the stored number as a long, the value must be a Number.
+     *
+     * @return The value as a long.
+     * @see #isNumber()
+     */
+    public long longValue() {
+        resolve();
+        switch (type) {
+            case INT:
+            case LONG:
+                return primitive;
+            case DOUBLE:
+                return (long) Double.longBitsToDouble(primitive);
+            default:
+                return ((Number) data).longValue();
+        }
+    }
+
+    /**
+     * Gets the stored number as a double, the value must be a Number.
+     *
+     * @return The value as a double.
+     * @see #isNumber()
+     */
+    public double doubleValue() {
+        resolve();
+        switch (type) {
+            case INT:
+            case LONG:
+                return primitive;
+            case DOUBLE:
+                return Double.longBitsToDouble(primitive);
+            default:
+                return ((Number) data).doubleValue();
+        }
+    }
+
+    /**
+     * Gets the stored boolean, the value must be a Boolean.
+     *
+     * @return The value as a boolean.
+     * @see #isBoolean()
+     */
+    public boolean booleanValue() {
+        resolve();
+        return primitive != 0;
     }
 
     /**
@@ -4,6 +4,7 @@ import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
 import com.google.common.io.Files;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -13,6 +14,22 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.MemoryConfiguration;
@@ -42,6 +59,11 @@ public abstract class FileConfiguration extends MemoryConfiguration {
         super(defaults);
     }
 
+    /**
+     * The size in bytes from which {@link #load(Path)} memory-maps files.
+     */
+    public static final int MAP_THRESHOLD = 1 << 20;
+
     /**
      * Saves this {@link FileConfiguration} to the specified location.
      * <p>
@@ -51,6 +73,10 @@ public abstract class FileConfiguration extends MemoryConfiguration {
      * <p>
      * This method will save using the system default encoding, or possibly
      * using UTF8.
+     * <p>
+     * The configuration is streamed to a hidden temporary file in the same
+     * directory, which then replaces the file, so the file is left as it was
+     * if the configuration cannot be saved. See {@link SaveMode#DIRECT}.
      *
      * @param file File to save to.
      * @throws IOException Thrown when the given file cannot be written to for
@@ -60,19 +86,151 @@ public abstract class FileConfiguration extends MemoryConfiguration {
     public void save(@NotNull File file) throws IOException {
         Preconditions.checkArgument(file != null, "File cannot be null");
 
-        Files.createParentDirs(file);
+        writeAtomically(file, SaveMode.DIRECT, this::save);
+    }
+
+    /**
+     * Saves this {@link FileConfiguration} to the specified location, using
+     * the given {@link SaveMode}.
+     * <p>
+     * If the file does not exist, it will be created. If already exists, it
+     * will be overwritten. If it cannot be overwritten or created, an
+     * exception will be thrown.
+     * <p>
+     * The configuration is written to a hidden temporary file in the same
+     * directory, which is removed if the save fails.
+     *
+     * @param file File to save to.
+     * @param mode How the file is written.
+     * @throws IOException Thrown when the given file cannot be written to for
+     *     any reason.
+     * @throws IllegalArgumentException Thrown when file or mode is null.
+     */
+    public void save(@NotNull File file, @NotNull SaveMode mode) throws IOException {
+        Preconditions.checkArgument(file != null, "File cannot be null");
+        Preconditions.checkArgument(mode != null, "Save mode cannot be null");
 
-        String data = saveToString();
+        if (mode == SaveMode.DIRECT) {
+            save(file);
+            return;
+        }
+        writeAtomically(file, mode, this::save);
+    }
 
-        Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charsets.UTF_8);
+    /**
+     * Saves the given contents, as returned by {@link #saveToString()}, to
+     * the specified location, using the given {@link SaveMode}.
+     * <p>
+     * This allows a configuration to be saved to a string on one thread,
+     * while it cannot be changed, and written to the file on another.
+     *
+     * @param contents Contents to save.
+     * @param file File to save to.
+     * @param mode How the file is written.
+     * @throws IOException Thrown when the given file cannot be written to for
+     *     any reason.
+     * @throws IllegalArgumentException Thrown when contents, file or mode is
+     *     null.
+     */
+    public static void save(@NotNull String contents, @NotNull File file, @NotNull SaveMode mode) throws IOException {
+        Preconditions.checkArgument(contents != null, "Contents cannot be null");
+        Preconditions.checkArgument(file != null, "File cannot be null");
+        Preconditions.checkArgument(mode != null, "Save mode cannot be null");
+
+        if (mode == SaveMode.DIRECT) {
+            Files.createParentDirs(file);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), Charsets.UTF_8))) {
+                writer.write(contents);
+            }
+            return;
+        }
+        writeAtomically(file, mode, writer -> writer.write(contents));
+    }
+
+    /**
+     * Writes a file through a temporary file, which is only forced to the
+     * storage device for {@link SaveMode#ATOMIC_SYNC}.
+     * <p>
+     * A symbolic link is followed, so that the file it points to is replaced
+     * rather than the link, and the permissions of an existing file are kept.
+     */
+    private static void writeAtomically(@NotNull File file, @NotNull SaveMode mode, @NotNull Contents contents) throws IOException {
+        File absolute = file.getAbsoluteFile();
+        Files.createParentDirs(absolute);
+        Path target = absolute.toPath();
+        boolean exists = java.nio.file.Files.exists(target);
+        if (exists) {
+            target = target.toRealPath();
+        }
+        Path directory = target.getParent();
+
+        Path temp = createTemporaryFile(directory, target.getFileName().toString());
+        boolean moved = false;
 
         try {
-            writer.write(data);
+            if (exists && java.nio.file.Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                java.nio.file.Files.setPosixFilePermissions(temp, java.nio.file.Files.getPosixFilePermissions(target));
+            }
+
+            FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+            try (Writer writer = new BufferedWriter(Channels.newWriter(channel, Charsets.UTF_8))) {
+                contents.writeTo(writer);
+                writer.flush();
+                if (mode == SaveMode.ATOMIC_SYNC) {
+                    channel.force(true);
+                }
+            }
+
+            try {
+                java.nio.file.Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                java.nio.file.Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
         } finally {
-            writer.close();
+            if (!moved) {
+                java.nio.file.Files.deleteIfExists(temp);
+            }
+        }
+
+        if (mode == SaveMode.ATOMIC_SYNC) {
+            // Makes the rename durable where the platform allows it
+            try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                channel.force(true);
+            } catch (IOException ex) {
+                // Ignored on purpose: directories cannot be opened or forced on
+                // every platform, Windows for one, and the file itself was
+                // already forced and moved, so the save did succeed
+            }
         }
     }
 
+    /**
+     * Creates a new hidden temporary file for the given file in the given
+     * directory. Each save has its own temporary file, so concurrent saves
+     * of the same file do not write to the same one. Unlike {@link
+     * java.nio.file.Files#createTempFile}, the file is created with the
+     * default permissions, to which the umask applies.
+     */
+    @NotNull
+    private static Path createTemporaryFile(@NotNull Path directory, @NotNull String name) throws IOException {
+        while (true) {
+            Path temp = directory.resolve("." + name + "." + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+            try {
+                return java.nio.file.Files.createFile(temp);
+            } catch (FileAlreadyExistsException ex) {
+                // taken by another save, try another name
+            }
+        }
+    }
+
+    /**
+     * Writes the contents of a file.
+     */
+    private interface Contents {
+        void writeTo(@NotNull Writer writer) throws IOException;
+    }
+
     /**
      * Saves this {@link FileConfiguration} to the specified location.
      * <p>
@@ -94,6 +252,24 @@ public abstract class FileConfiguration extends MemoryConfiguration {
         save(new File(file));
     }
 
+    /**
+     * Saves this {@link FileConfiguration} to the specified writer.
+     * <p>
+     * The writer is flushed, but not closed. Implementations may write
+     * directly to the writer instead of building the whole contents as a
+     * string first, so the writer should be buffered.
+     *
+     * @param writer Writer to save to.
+     * @throws IOException Thrown when the given writer throws an IOException.
+     * @throws IllegalArgumentException Thrown when writer is null.
+     */
+    public void save(@NotNull Writer writer) throws IOException {
+        Preconditions.checkArgument(writer != null, "Writer cannot be null");
+
+        writer.write(saveToString());
+        writer.flush();
+    }
+
     /**
      * Saves this {@link FileConfiguration} to a string, and returns it.
      *
@@ -160,6 +336,52 @@ public abstract class FileConfiguration extends MemoryConfiguration {
         loadFromString(builder.toString());
     }
 
+    /**
+     * Loads this {@link FileConfiguration} from the specified location,
+     * memory-mapping the file instead of reading it through a stream.
+     * <p>
+     * All the values contained within this configuration will be removed,
+     * leaving only settings and defaults, and the new values will be loaded
+     * from the given file.
+     * <p>
+     * The contents are decoded as UTF-8 directly from the mapped file, so no
+     * copy of the file is made on the heap. This is intended for large files
+     * that are loaded often; files smaller than {@link #MAP_THRESHOLD} bytes,
+     * and files too large to be mapped at once, are read like {@link
+     * #load(File)} does. The mapping is only released once it is garbage
+     * collected, and some platforms do not allow a mapped file to be replaced
+     * or deleted until then.
+     *
+     * @param path File to load from.
+     * @throws FileNotFoundException Thrown when the given file cannot be
+     *     opened.
+     * @throws IOException Thrown when the given file cannot be read.
+     * @throws InvalidConfigurationException Thrown when the given file is not
+     *     a valid Configuration.
+     * @throws IllegalArgumentException Thrown when path is null.
+     */
+    public void load(@NotNull Path path) throws FileNotFoundException, IOException, InvalidConfigurationException {
+        Preconditions.checkArgument(path != null, "Path cannot be null");
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD || size > Integer.MAX_VALUE) {
+                buffer = null;
+            } else {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        } catch (NoSuchFileException ex) {
+            throw new FileNotFoundException(path.toString());
+        }
+
+        if (buffer == null) {
+            load(path.toFile());
+        } else {
+            load(new MappedReader(buffer));
+        }
+    }
+
     /**
      * Loads this {@link FileConfiguration} from the specified location.
      * <p>
@@ -223,4 +445,84 @@ public abstract class FileConfiguration extends MemoryConfiguration {
 
         return (FileConfigurationOptions) options;
     }
+
+    /**
+     * A reader decoding UTF-8 from a buffer. Runs of ASCII characters, which
+     * make up most configuration files, are copied without the decoder.
+     */
+    private static final class MappedReader extends Reader {
+        private final ByteBuffer buffer;
+        private final CharsetDecoder decoder = Charsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final CharBuffer pending = CharBuffer.allocate(2);
+        private boolean flushed;
+
+        MappedReader(@NotNull ByteBuffer buffer) {
+            this.buffer = buffer;
+            pending.flip();
+            // skip the byte order mark
+            if (buffer.remaining() >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+                buffer.position(3);
+            }
+        }
+
+        @Override
+        public int read(@NotNull char[] chars, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (pending.hasRemaining()) {
+                chars[offset] = pending.get();
+                return 1;
+            }
+            if (!buffer.hasRemaining() && flushed) {
+                return -1;
+            }
+
+            int count = 0;
+            while (count < length && buffer.hasRemaining()) {
+                byte b = buffer.get(buffer.position());
+                if (b < 0) {
+                    break;
+                }
+                chars[offset + count++] = (char) b;
+                buffer.position(buffer.position() + 1);
+            }
+            if (count == length) {
+                return count;
+            }
+
+            if (length - count < 2 && buffer.hasRemaining()) {
+                // a surrogate pair does not fit into the remaining space
+                pending.clear();
+                decode(pending);
+                pending.flip();
+                chars[offset + count++] = pending.get();
+                return count;
+            }
+
+            CharBuffer out = CharBuffer.wrap(chars, offset + count, length - count);
+            decode(out);
+            count = out.position() - offset;
+            return (count == 0) ? -1 : count;
+        }
+
+        private void decode(@NotNull CharBuffer out) throws CharacterCodingException {
+            CoderResult result = decoder.decode(buffer, out, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (!buffer.hasRemaining() && !flushed && result.isUnderflow()) {
+                decoder.flush(out);
+                flushed = true;
+            }
+        }
+
+        @Override
+        public void close() {
+            buffer.position(buffer.limit());
+            flushed = true;
+        }
+    }
 }
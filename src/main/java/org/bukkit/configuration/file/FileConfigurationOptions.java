@@ -41,6 +41,13 @@ public class FileConfigurationOptions extends MemoryConfigurationOptions {
         return this;
     }
 
+    @NotNull
+    @Override
+    public FileConfigurationOptions pathIndex(boolean value) {
+        super.pathIndex(value);
+        return this;
+    }
+
     /**
      * Gets the header that will be applied to the top of the saved output.
      * <p>
@@ -0,0 +1,34 @@
+package org.bukkit.configuration.file;
+
+import java.io.File;
+
+/**
+ * The ways a {@link FileConfiguration} may be written to a file, used by
+ * {@link FileConfiguration#save(File, SaveMode)}.
+ */
+public enum SaveMode {
+    /**
+     * The configuration is streamed to a temporary file next to the target,
+     * which then replaces the target, so a configuration which cannot be
+     * saved leaves the file as it was. Nothing is forced to the storage
+     * device. Contents which were already saved to a string, see {@link
+     * FileConfiguration#save(String, File, SaveMode)}, are written to the
+     * file in place instead, so an interrupted write may leave it
+     * incomplete.
+     */
+    DIRECT,
+    /**
+     * The configuration is written to a temporary file next to the target,
+     * which is then moved over the target. Readers see either the previous
+     * or the new contents, but a crash of the system shortly after the save
+     * may still lose the new contents.
+     */
+    ATOMIC,
+    /**
+     * Like {@link #ATOMIC}, but the temporary file is forced to the storage
+     * device before it is moved, and the directory is forced after the move.
+     * This is the slowest mode, and should not be used on a thread that
+     * cannot afford to wait for the storage device.
+     */
+    ATOMIC_SYNC
+}
@@ -0,0 +1,371 @@
+package org.bukkit.configuration.file;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Saves {@link FileConfiguration}s some time after the save was requested,
+ * so that a burst of saves of the same file only writes it once.
+ * <p>
+ * A save of a file waits for the window given to the constructor, which
+ * starts again with every further save of the same file, but a file is never
+ * kept waiting longer than the maximum delay after its first pending save.
+ * If more files than {@link #maxPending()} are waiting, the file which has
+ * been waiting the longest is saved right away.
+ * <p>
+ * Once a file is due, its configuration is saved to a string on the {@link
+ * #snapshotExecutor()}, and the string is written to the file on a thread of
+ * this saver. Files are written one at a time, in the order they were saved
+ * to strings. Failures are passed to the {@link #failureHandler()}, and to
+ * the futures returned by {@link #save(FileConfiguration, File, SaveMode)}.
+ * <p>
+ * {@link #close()} saves the waiting files and waits for them to be written,
+ * and should be called on shutdown.
+ */
+public class WriteBehindSaver implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindSaver.class);
+
+    private final long window;
+    private final long maxDelay;
+    private final ScheduledExecutorService writer;
+    /**
+     * The waiting saves, the one which has been waiting the longest first.
+     */
+    private final Map<File, PendingSave> pending = new LinkedHashMap<>();
+    /**
+     * The due saves whose configuration was not saved to a string yet.
+     */
+    private final Set<PendingSave> due = new LinkedHashSet<>();
+    private final Executor snapshotExecutor;
+    private int maxPending = 64;
+    private BiConsumer<File, Exception> failureHandler = (file, e) -> logger.warn("Cannot save " + file, e);
+    private boolean closed;
+
+    /**
+     * Creates a saver, which starts a thread writing the files.
+     * <p>
+     * A configuration must not be changed while it is saved to a string, so
+     * the snapshot executor should run on the thread changing the saved
+     * configurations, such as the main thread of a server. {@code
+     * Runnable::run} saves them on the thread of this saver instead, which
+     * is only safe if the configurations are not changed after they were
+     * saved.
+     *
+     * @param window The time a save waits for further saves of the same file.
+     * @param maxDelay The longest time a save waits.
+     * @param unit The unit of the times.
+     * @param snapshotExecutor The executor saving the configurations of due
+     *     files to strings.
+     * @throws IllegalArgumentException Thrown if a time is negative, or if
+     *     unit or snapshotExecutor is null.
+     */
+    public WriteBehindSaver(long window, long maxDelay, @NotNull TimeUnit unit, @NotNull Executor snapshotExecutor) {
+        Preconditions.checkArgument(window >= 0, "Window cannot be negative");
+        Preconditions.checkArgument(maxDelay >= 0, "Maximum delay cannot be negative");
+        Preconditions.checkArgument(unit != null, "Unit cannot be null");
+        Preconditions.checkArgument(snapshotExecutor != null, "Executor cannot be null");
+
+        this.window = unit.toNanos(window);
+        this.maxDelay = unit.toNanos(maxDelay);
+        this.snapshotExecutor = snapshotExecutor;
+        this.writer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "configuration-saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Requests a save of the given configuration to the given file, which
+     * replaces any waiting save of the same file.
+     *
+     * @param configuration The configuration to save.
+     * @param file The file to save to.
+     * @param mode How the file is written.
+     * @return A future which completes once the file was written, shared by
+     *     the saves of the file which were written together, or completes
+     *     exceptionally if it could not be written.
+     * @throws IllegalArgumentException Thrown if an argument is null.
+     * @throws IllegalStateException Thrown if this saver was closed.
+     */
+    @NotNull
+    public CompletableFuture<Void> save(@NotNull FileConfiguration configuration, @NotNull File file, @NotNull SaveMode mode) {
+        Preconditions.checkArgument(configuration != null, "Configuration cannot be null");
+        Preconditions.checkArgument(file != null, "File cannot be null");
+        Preconditions.checkArgument(mode != null, "Save mode cannot be null");
+
+        File target = file.getAbsoluteFile();
+        PendingSave overflow = null;
+        CompletableFuture<Void> written;
+        synchronized (this) {
+            Preconditions.checkState(!closed, "The saver is closed");
+
+            long now = System.nanoTime();
+            PendingSave save = pending.get(target);
+            if (save == null) {
+                save = new PendingSave(target, now);
+                pending.put(target, save);
+            } else {
+                save.task.cancel(false);
+            }
+            save.configuration = configuration;
+            save.mode = mode;
+            written = save.written;
+
+            PendingSave scheduled = save;
+            long delay = Math.max(0, Math.min(window, save.first + maxDelay - now));
+            save.task = writer.schedule(() -> due(scheduled), delay, TimeUnit.NANOSECONDS);
+
+            if (pending.size() > maxPending) {
+                overflow = pending.values().iterator().next();
+                pending.remove(overflow.file);
+                overflow.task.cancel(false);
+            }
+        }
+
+        if (overflow != null) {
+            // the caller may save its configuration, so it is saved right away
+            snapshot(overflow);
+        }
+        return written;
+    }
+
+    /**
+     * Saves the waiting files now, saving their configurations to strings on
+     * the calling thread, and waits for them to be written.
+     *
+     * @throws InterruptedException Thrown if the thread was interrupted while
+     *     waiting.
+     */
+    public void flush() throws InterruptedException {
+        for (PendingSave save : takeAll()) {
+            snapshot(save);
+        }
+        try {
+            // the writes run in order, so they are done once this task is
+            writer.submit(() -> { }).get();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            // the saver was closed, which waits for the writes itself
+        }
+    }
+
+    /**
+     * Saves the waiting files like {@link #flush()} does and stops the thread
+     * writing the files. Further saves are rejected.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        for (PendingSave save : takeAll()) {
+            snapshot(save);
+        }
+
+        writer.shutdown();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Takes the waiting and due saves, which are then saved by the caller.
+     */
+    @NotNull
+    private synchronized List<PendingSave> takeAll() {
+        List<PendingSave> saves = new ArrayList<>(due);
+        for (PendingSave save : pending.values()) {
+            save.task.cancel(false);
+            saves.add(save);
+        }
+        due.clear();
+        pending.clear();
+        return saves;
+    }
+
+    /**
+     * Hands a save which is due to the snapshot executor.
+     */
+    private void due(@NotNull PendingSave save) {
+        synchronized (this) {
+            if (pending.get(save.file) != save) {
+                return;
+            }
+            pending.remove(save.file);
+            due.add(save);
+        }
+
+        try {
+            snapshotExecutor().execute(() -> {
+                synchronized (this) {
+                    if (!due.remove(save)) {
+                        // already saved by flush or close
+                        return;
+                    }
+                }
+                snapshot(save);
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                due.remove(save);
+            }
+            fail(save, e);
+        }
+    }
+
+    /**
+     * Saves the configuration of a save to a string, and writes it.
+     */
+    private void snapshot(@NotNull PendingSave save) {
+        String contents;
+        try {
+            contents = save.configuration.saveToString();
+        } catch (RuntimeException e) {
+            fail(save, e);
+            return;
+        }
+
+        Runnable write = () -> {
+            try {
+                FileConfiguration.save(contents, save.file, save.mode);
+            } catch (IOException | RuntimeException e) {
+                fail(save, e);
+                return;
+            }
+            save.written.complete(null);
+        };
+        try {
+            writer.execute(write);
+        } catch (RejectedExecutionException e) {
+            // the saver was closed in the meantime
+            write.run();
+        }
+    }
+
+    /**
+     * Passes the failure of a save to the failure handler and its future.
+     */
+    private void fail(@NotNull PendingSave save, @NotNull Exception e) {
+        try {
+            failureHandler().accept(save.file, e);
+        } finally {
+            save.written.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Gets the number of files which may wait to be saved.
+     *
+     * @return The maximum number of waiting files, 64 by default.
+     */
+    public synchronized int maxPending() {
+        return maxPending;
+    }
+
+    /**
+     * Sets the number of files which may wait to be saved. If a save exceeds
+     * it, the file which has been waiting the longest is saved right away,
+     * on the thread requesting the save.
+     *
+     * @param value The maximum number of waiting files.
+     * @return This object, for chaining
+     * @throws IllegalArgumentException Thrown if value is negative.
+     */
+    @NotNull
+    public synchronized WriteBehindSaver maxPending(int value) {
+        Preconditions.checkArgument(value >= 0, "Maximum pending saves cannot be negative");
+
+        this.maxPending = value;
+        return this;
+    }
+
+    /**
+     * Gets the executor which saves the configurations of due files to
+     * strings, which was given to the constructor.
+     *
+     * @return The executor.
+     */
+    @NotNull
+    public Executor snapshotExecutor() {
+        return snapshotExecutor;
+    }
+
+    /**
+     * Gets the handler of failed saves, which is passed the file and the
+     * exception.
+     *
+     * @return The handler, which logs the failure by default.
+     */
+    @NotNull
+    public synchronized BiConsumer<File, Exception> failureHandler() {
+        return failureHandler;
+    }
+
+    /**
+     * Sets the handler of failed saves, which is passed the file and the
+     * exception. It is called on the thread which failed to save the file.
+     *
+     * @param value The handler.
+     * @return This object, for chaining
+     * @throws IllegalArgumentException Thrown if value is null.
+     */
+    @NotNull
+    public synchronized WriteBehindSaver failureHandler(@NotNull BiConsumer<File, Exception> value) {
+        Preconditions.checkArgument(value != null, "Failure handler cannot be null");
+
+        this.failureHandler = value;
+        return this;
+    }
+
+    /**
+     * A save which waits to be written.
+     */
+    private static final class PendingSave {
+        private final File file;
+        /**
+         * When the first save of the file was requested, in nanoseconds.
+         */
+        private final long first;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+        private FileConfiguration configuration;
+        private SaveMode mode;
+        private ScheduledFuture<?> task;
+
+        private PendingSave(@NotNull File file, long first) {
+            this.file = file;
+            this.first = first;
+        }
+    }
+}
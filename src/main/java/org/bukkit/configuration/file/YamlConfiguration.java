@@ -4,20 +4,40 @@ import com.google.common.base.Preconditions;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
 
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.MemorySection;
 import org.bukkit.configuration.serialization.ConfigurationSerialization;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.DumperOptions;
@@ -25,15 +45,35 @@ import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.comments.CommentLine;
 import org.yaml.snakeyaml.comments.CommentType;
+import org.yaml.snakeyaml.composer.Composer;
 import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CommentEvent;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.ImplicitTuple;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
 import org.yaml.snakeyaml.nodes.AnchorNode;
 import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
 import org.yaml.snakeyaml.nodes.NodeTuple;
 import org.yaml.snakeyaml.nodes.ScalarNode;
 import org.yaml.snakeyaml.nodes.SequenceNode;
 import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
 import org.yaml.snakeyaml.reader.UnicodeReader;
+import org.yaml.snakeyaml.resolver.Resolver;
+import org.yaml.snakeyaml.serializer.AnchorGenerator;
+import org.yaml.snakeyaml.serializer.NumberAnchorGenerator;
 
 /**
  * An implementation of {@link Configuration} which saves all files in Yaml.
@@ -52,77 +92,440 @@ public class YamlConfiguration extends FileConfiguration {
      */
     @Deprecated
     protected static final String BLANK_CONFIG = "{}\n";
-    private final DumperOptions yamlDumperOptions;
-    private final LoaderOptions yamlLoaderOptions;
-    private final YamlConstructor constructor;
-    private final YamlRepresenter representer;
-    private final Yaml yaml;
-
-    public YamlConfiguration() {
-        yamlDumperOptions = new DumperOptions();
-        yamlDumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-        yamlLoaderOptions = new LoaderOptions();
-        yamlLoaderOptions.setMaxAliasesForCollections(Integer.MAX_VALUE); // SPIGOT-5881: Not ideal, but was default pre SnakeYAML 1.26
-        yamlLoaderOptions.setCodePointLimit(Integer.MAX_VALUE); // SPIGOT-7161: Not ideal, but was default pre SnakeYAML 1.32
+    /**
+     * The document loaded and saved by {@link #warmUp()}.
+     */
+    private static final String WARM_UP_DOCUMENT = "# header\n\n"
+            + "# section\nsection: # inline\n  string: text\n  quoted: 'quoted text'\n  int: 42\n  long: 12345678901\n"
+            + "  double: 1.5\n  boolean: true\n  date: 2020-01-05\n  empty: ''\n"
+            + "  nested: &nested\n    list:\n    - a\n    - 1\n    map: {key: value}\n"
+            + "copy:\n  <<: *nested\n  hex: 0x1F\n# footer\n";
+    private static final int WARM_UP_ROUNDS = 200;
+    /**
+     * The key and value of the mappings parts of a saved document are nested
+     * in, see {@link FragmentWriter}.
+     */
+    private static final String FRAGMENT_PLACEHOLDER = "x";
+    /**
+     * Constructs the deferred integers, floats and booleans, see {@link
+     * DeferredScalar}. Their constructs keep no state, so unlike the
+     * constructors of the engines this one is shared by all threads.
+     */
+    private static final YamlConstructor SCALAR_CONSTRUCTOR = new YamlConstructor(new LoaderOptions());
 
-        constructor = new YamlConstructor(yamlLoaderOptions);
-        representer = new YamlRepresenter(yamlDumperOptions);
-        representer.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+    /**
+     * Names the anchors of saved objects which are referenced more than once.
+     * It belongs to the configuration rather than to the engine saving it,
+     * such that the names do not depend on what other configurations saved.
+     */
+    private final AnchorGenerator anchorGenerator = new NumberAnchorGenerator(0);
+    /**
+     * The text of the sections written by the previous save, see {@link
+     * YamlConfigurationOptions#cacheSections()}.
+     */
+    private Map<ConfigurationSection, Fragment> fragments = Collections.emptyMap();
+    /**
+     * The indent, width and comment options the fragments were written with.
+     */
+    private String fragmentFormat;
+    /**
+     * The text the configuration was loaded from, see {@link
+     * YamlConfigurationOptions#patchSaves()}.
+     */
+    private LoadedText loadedText;
 
-        yaml = new Yaml(constructor, representer, yamlDumperOptions, yamlLoaderOptions);
+    /**
+     * Loads and saves a small sample document a number of times, such that
+     * the classes used to load and save configurations are loaded, and their
+     * hot paths are compiled, before the first real configuration is read.
+     * <p>
+     * This may be called once at startup, from any thread. It is never
+     * required.
+     */
+    public static void warmUp() {
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            YamlConfiguration configuration = new YamlConfiguration();
+            try {
+                configuration.loadFromString(WARM_UP_DOCUMENT);
+            } catch (InvalidConfigurationException e) {
+                throw new IllegalStateException("Cannot load the warm up document", e);
+            }
+            configuration.saveToString();
+        }
     }
 
     @NotNull
     @Override
     public String saveToString() {
-        yamlDumperOptions.setIndent(options().indent());
-        yamlDumperOptions.setWidth(options().width());
-        yamlDumperOptions.setProcessComments(options().parseComments());
+        StringWriter writer = new StringWriter();
+        serialize(writer);
+        return writer.toString();
+    }
+
+    /**
+     * Saves this {@link YamlConfiguration} to the specified writer.
+     * <p>
+     * The configuration is emitted directly to the writer, so the contents
+     * are never held in memory as a whole. The writer is flushed, but not
+     * closed.
+     *
+     * @param writer Writer to save to.
+     * @throws IOException Thrown when the given writer throws an IOException.
+     * @throws IllegalArgumentException Thrown when writer is null.
+     */
+    @Override
+    public void save(@NotNull Writer writer) throws IOException {
+        Preconditions.checkArgument(writer != null, "Writer cannot be null");
 
-        MappingNode node = toNodeTree(this);
+        try {
+            serialize(writer);
+        } catch (YAMLException e) {
+            // SnakeYAML wraps the exceptions of the underlying writer
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+        writer.flush();
+    }
 
-        node.setBlockComments(getCommentLines(saveHeader(options().getHeader()), CommentType.BLOCK));
-        node.setEndComments(getCommentLines(options().getFooter(), CommentType.BLOCK));
+    private void serialize(@NotNull Writer writer) {
+        Engine engine = Engine.acquire();
+        try {
+            serialize(engine, writer);
+        } finally {
+            engine.release();
+        }
+    }
 
-        StringWriter writer = new StringWriter();
-        if (node.getBlockComments().isEmpty() && node.getEndComments().isEmpty() && node.getValue().isEmpty()) {
-            writer.write("");
-        } else {
-            if (node.getValue().isEmpty()) {
-                node.setFlowStyle(DumperOptions.FlowStyle.FLOW);
+    private void serialize(@NotNull Engine engine, @NotNull Writer writer) {
+        engine.dumperOptions.setIndent(options().indent());
+        engine.dumperOptions.setWidth(options().width());
+        engine.dumperOptions.setProcessComments(options().parseComments());
+
+        List<CommentLine> header = getCommentLines(saveHeader(options().getHeader()), CommentType.BLOCK);
+        List<CommentLine> footer = getCommentLines(options().getFooter(), CommentType.BLOCK);
+        Map<String, Object> values = getValuesView(false);
+
+        if (!options().cacheSections()) {
+            fragments = Collections.emptyMap();
+        }
+        if (loadedText != null) {
+            try {
+                // copied defaults are saved without changing the loaded sections
+                if (options().patchSaves() && !(options().copyDefaults() && getDefaults() != null)
+                        && patchLoadedText(engine, loadedText, values, writer)) {
+                    return;
+                }
+            } catch (IOException e) {
+                loadedText = null;
+                throw new YAMLException(e);
             }
-            yaml.serialize(node, writer);
+            // the saved text no longer matches the loaded one
+            loadedText = null;
         }
-        return writer.toString();
+        if (!header.isEmpty() || !footer.isEmpty() || !values.isEmpty()) {
+            try {
+                if (options().cacheSections() && !values.isEmpty() && !(options().copyDefaults() && getDefaults() != null)) {
+                    new FragmentWriter(engine, writer).writeDocument(values, header, footer);
+                } else {
+                    new SectionEmitter(engine, writer).emitDocument(this, values, header, footer);
+                }
+            } catch (IOException e) {
+                // wrapped like SnakeYAML does
+                throw new YAMLException(e);
+            }
+        }
+    }
+
+    /**
+     * Gets the options which change how values are formatted.
+     */
+    @NotNull
+    private String format() {
+        return options().indent() + " " + options().width() + " " + options().parseComments();
+    }
+
+    /**
+     * Writes the loaded text with the text of the values which were changed
+     * since they were loaded replaced, if nothing else was changed.
+     *
+     * @return Whether the text was written.
+     */
+    private boolean patchLoadedText(@NotNull Engine engine, @NotNull LoadedText text, @NotNull Map<String, Object> values, @NotNull Writer writer) throws IOException {
+        if (!text.format.equals(format()) || !text.header.equals(options().getHeader()) || !text.footer.equals(options().getFooter())) {
+            return false;
+        }
+        Map<LoadedValue, Object> changed = new IdentityHashMap<>();
+        Map<LoadedSection, Integer> checked = new IdentityHashMap<>();
+        if (!collectChanges(engine, text, this, values, changed, checked)) {
+            return false;
+        }
+
+        if (!changed.isEmpty()) {
+            StringBuilder out = new StringBuilder(text.text.length() + 16 * changed.size());
+            int last = 0;
+            int shift = 0;
+            for (LoadedValue scalar : text.scalars) {
+                int start = scalar.start;
+                int end = scalar.end;
+                scalar.start += shift;
+                scalar.end += shift;
+                if (changed.containsKey(scalar)) {
+                    String replacement = scalar.text;
+                    out.append(text.text, last, start).append(replacement);
+                    last = end;
+                    shift += replacement.length() - (end - start);
+                    scalar.end = scalar.start + replacement.length();
+                    scalar.value = changed.get(scalar);
+                }
+            }
+            out.append(text.text, last, text.text.length());
+            text.text = out.toString();
+        }
+        for (Map.Entry<LoadedSection, Integer> entry : checked.entrySet()) {
+            entry.getKey().modifications = entry.getValue();
+        }
+        writer.write(text.text);
+        return true;
+    }
+
+    /**
+     * Collects the values of a section which were changed since they were
+     * loaded, and renders their text.
+     *
+     * @return Whether only values with text that can be replaced were
+     *     changed.
+     */
+    private boolean collectChanges(@NotNull Engine engine, @NotNull LoadedText text, @NotNull ConfigurationSection section, @NotNull Map<String, Object> values, @NotNull Map<LoadedValue, Object> changed, @NotNull Map<LoadedSection, Integer> checked) throws IOException {
+        LoadedSection loaded = text.sections.get(section);
+        if (loaded == null || !(section instanceof MemorySection)) {
+            return false;
+        }
+        int modifications = getModifications((MemorySection) section);
+        if (loaded.modifications == modifications) {
+            return true;
+        }
+        checked.put(loaded, modifications);
+        if (values.size() != loaded.values.size()) {
+            return false;
+        }
+
+        Iterator<Map.Entry<String, LoadedValue>> loadedValues = loaded.values.entrySet().iterator();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Map.Entry<String, LoadedValue> loadedEntry = loadedValues.next();
+            String key = entry.getKey();
+            LoadedValue loadedValue = loadedEntry.getValue();
+            Object value = entry.getValue();
+            if (!key.equals(loadedEntry.getKey()) || !section.getComments(key).equals(loadedValue.comments)
+                    || !section.getInlineComments(key).equals(loadedValue.inlineComments)) {
+                return false;
+            }
+
+            if (value instanceof ConfigurationSection) {
+                ConfigurationSection child = (ConfigurationSection) value;
+                if (value != loadedValue.value || !collectChanges(engine, text, child, child.getValuesView(false), changed, checked)) {
+                    return false;
+                }
+            } else if (value != loadedValue.value && !(isImmutable(value) && value.equals(loadedValue.value))) {
+                if (loadedValue.start == -1) {
+                    return false;
+                }
+                loadedValue.text = renderScalar(engine, value);
+                if (loadedValue.text == null) {
+                    return false;
+                }
+                changed.put(loadedValue, value);
+            }
+        }
+        return true;
+    }
+
+    private boolean isImmutable(@Nullable Object value) {
+        return value instanceof String || value instanceof BigInteger || isPrimitiveWrapper(value);
+    }
+
+    /**
+     * Renders a value which is written on a single line as a plain or
+     * quoted scalar.
+     *
+     * @return The text of the value, or null if it is written otherwise.
+     */
+    @Nullable
+    private String renderScalar(@NotNull Engine engine, @Nullable Object value) throws IOException {
+        Node node = engine.representer.represent(value);
+        if (!(node instanceof ScalarNode)) {
+            return null;
+        }
+        StringWriter text = new StringWriter();
+        SectionEmitter emitter = new SectionEmitter(engine, text);
+        emitter.startDocument();
+        emitter.startMapping(DumperOptions.FlowStyle.BLOCK);
+        emitter.emitPlaceholder(FRAGMENT_PLACEHOLDER);
+        emitter.emitNode(node);
+        emitter.endMapping();
+        emitter.endDocument();
+
+        String line = text.toString();
+        String prefix = FRAGMENT_PLACEHOLDER + ": ";
+        if (!line.startsWith(prefix) || line.indexOf('\n') != line.length() - 1) {
+            return null;
+        }
+        return line.substring(prefix.length(), line.length() - 1);
+    }
+
+    /**
+     * Keeps the loaded text and the values it was loaded as.
+     */
+    @NotNull
+    private LoadedText loadText(@NotNull TextRecorder recorder) {
+        LoadedText text = new LoadedText(recorder.text.toString(), format(), options().getHeader(), options().getFooter());
+        loadSection(text, this, recorder);
+        text.scalars.sort(Comparator.comparingInt(scalar -> scalar.start));
+        return text;
+    }
+
+    private void loadSection(@NotNull LoadedText text, @NotNull MemorySection section, @NotNull TextRecorder recorder) {
+        Map<String, LoadedValue> scalars = recorder.scalars.getOrDefault(section, Collections.emptyMap());
+        LoadedSection loaded = new LoadedSection(getModifications(section));
+        for (Map.Entry<String, Object> entry : section.getValuesView(false).entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            LoadedValue loadedValue = (value instanceof ConfigurationSection) ? null : scalars.get(key);
+            if (loadedValue != null) {
+                text.scalars.add(loadedValue);
+            } else {
+                loadedValue = new LoadedValue(-1, -1);
+            }
+            loadedValue.value = value;
+            loadedValue.comments = section.getComments(key);
+            loadedValue.inlineComments = section.getInlineComments(key);
+            loaded.values.put(key, loadedValue);
+
+            if (value instanceof MemorySection) {
+                loadSection(text, (MemorySection) value, recorder);
+            }
+        }
+        text.sections.put(section, loaded);
     }
 
     @Override
     public void loadFromString(@NotNull String contents) throws InvalidConfigurationException {
         Preconditions.checkArgument(contents != null, "Contents cannot be null");
-        yamlLoaderOptions.setProcessComments(options().parseComments());
 
-        MappingNode node;
         try (Reader reader = new UnicodeReader(new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8)))) {
-            Node rawNode = yaml.compose(reader);
-            try {
-                node = (MappingNode) rawNode;
-            } catch (ClassCastException e) {
+            load(reader);
+        } catch (IOException e) {
+            throw new InvalidConfigurationException(e);
+        }
+    }
+
+    /**
+     * Loads this {@link YamlConfiguration} from the specified reader.
+     * <p>
+     * Unlike {@link #loadFromString(String)}, the reader is passed directly
+     * to the parser, so the contents are never held in memory as a whole.
+     * The reader is closed once the document was read.
+     *
+     * @param reader the reader to load from
+     * @throws IOException thrown when underlying reader throws an IOException
+     * @throws InvalidConfigurationException thrown when the reader does not
+     *      represent a valid Configuration
+     * @throws IllegalArgumentException thrown when reader is null
+     */
+    @Override
+    public void load(@NotNull Reader reader) throws IOException, InvalidConfigurationException {
+        Preconditions.checkArgument(reader != null, "Reader cannot be null");
+
+        try {
+            compose(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Loads the document read from the given reader. The values are put into
+     * this configuration while the document is being parsed, see {@link
+     * SectionComposer}. If loading fails, the previous values are restored.
+     */
+    private void compose(@NotNull Reader reader) throws IOException, InvalidConfigurationException {
+        Engine engine = Engine.acquire();
+        engine.loaderOptions.setProcessComments(options().parseComments());
+
+        Runnable restore = detachValues(map);
+        // the loaded sections are new, so the text of the previous ones is dropped
+        fragments = Collections.emptyMap();
+        loadedText = null;
+        TextRecorder recorder = (options().patchSaves() && options().parseComments() && !options().lazySections() && !options().lazyScalars())
+                ? new TextRecorder(reader) : null;
+        boolean loaded = false;
+        try {
+            SectionComposer composer = new SectionComposer(engine, (recorder != null) ? recorder : reader, recorder);
+            Node rawNode = composer.getSingleNode();
+            if (rawNode != null && !(rawNode instanceof MappingNode)) {
                 throw new InvalidConfigurationException("Top level is not a Map.");
             }
-        } catch (YAMLException | IOException | ClassCastException e) {
+
+            MappingNode node = (MappingNode) rawNode;
+            if (node == null || node != composer.root) {
+                // nothing was loaded while parsing, e.g. for documents without values
+                load(engine, node);
+            } else {
+                options().setHeader(loadHeader(getCommentLines(node.getBlockComments())));
+                options().setFooter(getCommentLines(node.getEndComments()));
+            }
+            if (recorder != null) {
+                loadedText = loadText(recorder);
+            }
+            loaded = true;
+        } catch (YAMLException e) {
+            // SnakeYAML wraps the exceptions of the underlying reader
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
             throw new InvalidConfigurationException(e);
+        } finally {
+            engine.release();
+            if (!loaded) {
+                restore.run();
+            }
         }
+    }
 
-        this.map.clear();
+    private void load(@NotNull Engine engine, @Nullable MappingNode node) {
+        clearValues();
 
         if (node != null) {
             adjustNodeComments(node);
             options().setHeader(loadHeader(getCommentLines(node.getBlockComments())));
             options().setFooter(getCommentLines(node.getEndComments()));
-            fromNodeTree(node, this);
+            fromNodeTree(engine, node, this);
         }
     }
 
+    /**
+     * Clears the given values, returning a task which puts them back.
+     *
+     * @param values The values.
+     * @return The task restoring the values.
+     */
+    @NotNull
+    private <V> Runnable detachValues(@NotNull Map<String, V> values) {
+        List<Map.Entry<String, V>> entries = new ArrayList<>(values.size());
+        for (Map.Entry<String, V> entry : values.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+        }
+        clearValues();
+
+        return () -> {
+            clearValues();
+            for (Map.Entry<String, V> entry : entries) {
+                values.put(entry.getKey(), entry.getValue());
+            }
+        };
+    }
+
     /**
      * This method splits the header on the last empty line, and sets the
      * comments below this line as comments for the first key on the map object.
@@ -130,8 +533,13 @@ public class YamlConfiguration extends FileConfiguration {
      * @param node The root node of the yaml object
      */
     private void adjustNodeComments(final MappingNode node) {
-        if (node.getBlockComments() == null && !node.getValue().isEmpty()) {
-            Node firstNode = node.getValue().get(0).getKeyNode();
+        if (!node.getValue().isEmpty()) {
+            adjustNodeComments(node, node.getValue().get(0).getKeyNode());
+        }
+    }
+
+    private void adjustNodeComments(final MappingNode node, final Node firstNode) {
+        if (node.getBlockComments() == null) {
             List<CommentLine> lines = firstNode.getBlockComments();
             if (lines != null) {
                 int index = -1;
@@ -148,65 +556,92 @@ public class YamlConfiguration extends FileConfiguration {
         }
     }
 
-    private void fromNodeTree(@NotNull MappingNode input, @NotNull ConfigurationSection section) {
-        constructor.flattenMapping(input);
+    private void fromNodeTree(@NotNull Engine engine, @NotNull MappingNode input, @NotNull ConfigurationSection section) {
+        engine.constructor.flattenMapping(input);
         for (NodeTuple nodeTuple : input.getValue()) {
             Node key = nodeTuple.getKeyNode();
-            String keyString = String.valueOf(constructor.construct(key));
-            Node value = nodeTuple.getValueNode();
+            String keyString = String.valueOf(construct(engine, key));
+            fromNodeTuple(engine, section, keyString, key, nodeTuple.getValueNode(), false);
+        }
+    }
 
-            while (value instanceof AnchorNode) {
-                value = ((AnchorNode) value).getRealNode();
-            }
+    /**
+     * Loads the values of a section whose loading was deferred.
+     */
+    private void fromDeferredNodeTree(@NotNull MappingNode input, @NotNull ConfigurationSection section) {
+        Engine engine = Engine.acquire();
+        try {
+            fromNodeTree(engine, input, section);
+        } finally {
+            engine.release();
+        }
+    }
+
+    private void fromNodeTuple(@NotNull Engine engine, @NotNull ConfigurationSection section, @NotNull String keyString, @NotNull Node key, @NotNull Node value, boolean loaded) {
+        while (value instanceof AnchorNode) {
+            value = ((AnchorNode) value).getRealNode();
+        }
 
+        if (!loaded) {
             if (value instanceof MappingNode && !hasSerializedTypeKey((MappingNode) value)) {
-                fromNodeTree((MappingNode) value, section.createSection(keyString));
+                ConfigurationSection child = section.createSection(keyString);
+                if (options().lazySections() && child instanceof MemorySection) {
+                    MappingNode mapping = (MappingNode) value;
+                    deferValues((MemorySection) child, () -> fromDeferredNodeTree(mapping, child));
+                } else {
+                    fromNodeTree(engine, (MappingNode) value, child);
+                }
+            } else if (options().lazyScalars() && section instanceof MemorySection && isDeferrable(value)) {
+                setDeferred((MemorySection) section, keyString, new DeferredScalar((ScalarNode) value));
             } else {
-                section.set(keyString, constructor.construct(value));
+                section.set(keyString, construct(engine, value));
             }
+        }
 
-            section.setComments(keyString, getCommentLines(key.getBlockComments()));
-            if (value instanceof MappingNode || value instanceof SequenceNode) {
-                section.setInlineComments(keyString, getCommentLines(key.getInLineComments()));
-            } else {
-                section.setInlineComments(keyString, getCommentLines(value.getInLineComments()));
-            }
+        List<String> comments = getCommentLines(key.getBlockComments());
+        List<String> inlineComments = (value instanceof MappingNode || value instanceof SequenceNode)
+                ? getCommentLines(key.getInLineComments()) : getCommentLines(value.getInLineComments());
+        if (section instanceof MemorySection) {
+            setLoadedComments((MemorySection) section, keyString, comments, inlineComments);
+        } else {
+            section.setComments(keyString, comments);
+            section.setInlineComments(keyString, inlineComments);
         }
     }
 
+    /**
+     * Checks whether the given node is a plain number, boolean or timestamp
+     * which would be resolved to the same tag when it is saved, such that it
+     * can be constructed later and saved as it is.
+     */
+    private boolean isDeferrable(@NotNull Node node) {
+        if (!(node instanceof ScalarNode) || !((ScalarNode) node).isPlain()) {
+            return false;
+        }
+        // the resolver returns the Tag constants, while the composer creates
+        // a new Tag for an explicit tag, so an identical tag was resolved the
+        // same way as when the scalar is saved. SnakeYAML does not expose
+        // whether a node was resolved otherwise.
+        Tag tag = node.getTag();
+        return tag == Tag.INT || tag == Tag.FLOAT || tag == Tag.BOOL || tag == Tag.TIMESTAMP;
+    }
+
+    @Nullable
+    private Object construct(@NotNull Engine engine, @NotNull Node node) {
+        return (node instanceof ScalarNode) ? engine.constructor.constructUnshared((ScalarNode) node) : engine.constructor.construct(node);
+    }
+
     private boolean hasSerializedTypeKey(MappingNode node) {
         for (NodeTuple nodeTuple : node.getValue()) {
-            Node keyNode = nodeTuple.getKeyNode();
-            if (!(keyNode instanceof ScalarNode)) continue;
-            String key = ((ScalarNode) keyNode).getValue();
-            if (key.equals(ConfigurationSerialization.SERIALIZED_TYPE_KEY)) {
+            if (isSerializedTypeKey(nodeTuple.getKeyNode())) {
                 return true;
             }
         }
         return false;
     }
 
-    private MappingNode toNodeTree(@NotNull ConfigurationSection section) {
-        List<NodeTuple> nodeTuples = new ArrayList<>();
-        for (Map.Entry<String, Object> entry : section.getValues(false).entrySet()) {
-            Node key = representer.represent(entry.getKey());
-            Node value;
-            if (entry.getValue() instanceof ConfigurationSection) {
-                value = toNodeTree((ConfigurationSection) entry.getValue());
-            } else {
-                value = representer.represent(entry.getValue());
-            }
-            key.setBlockComments(getCommentLines(section.getComments(entry.getKey()), CommentType.BLOCK));
-            if (value instanceof MappingNode || value instanceof SequenceNode) {
-                key.setInLineComments(getCommentLines(section.getInlineComments(entry.getKey()), CommentType.IN_LINE));
-            } else {
-                value.setInLineComments(getCommentLines(section.getInlineComments(entry.getKey()), CommentType.IN_LINE));
-            }
-
-            nodeTuples.add(new NodeTuple(key, value));
-        }
-
-        return new MappingNode(Tag.MAP, nodeTuples, DumperOptions.FlowStyle.BLOCK);
+    private boolean isSerializedTypeKey(Node keyNode) {
+        return keyNode instanceof ScalarNode && ((ScalarNode) keyNode).getValue().equals(ConfigurationSerialization.SERIALIZED_TYPE_KEY);
     }
 
     private List<String> getCommentLines(List<CommentLine> comments) {
@@ -342,4 +777,834 @@ public class YamlConfiguration extends FileConfiguration {
 
         return config;
     }
+
+    /**
+     * A composer which puts the values of mappings into sections while the
+     * document is being parsed, instead of composing the node tree of the
+     * whole document first. Only values which cannot be loaded that way, like
+     * lists, anchored nodes and serialized objects, are composed into nodes
+     * and loaded like {@link #fromNodeTree(MappingNode, ConfigurationSection)}
+     * does. The mappings which were loaded are composed without children.
+     * <p>
+     * If {@link YamlConfigurationOptions#lazySections()} is enabled, only the
+     * top level mapping is loaded while parsing. The nodes of its subsections
+     * are kept, and loaded once the section is first accessed.
+     */
+    private final class SectionComposer extends Composer {
+        private final Engine engine;
+        private final TextRecorder recorder;
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private MappingNode root;
+        private MappingNode loaded;
+
+        private SectionComposer(@NotNull Engine engine, @NotNull Reader reader, @Nullable TextRecorder recorder) {
+            super(new ParserImpl(new StreamReader(reader), engine.loaderOptions), engine.resolver, engine.loaderOptions);
+            this.engine = engine;
+            this.recorder = recorder;
+        }
+
+        @Override
+        protected Node composeSequenceNode(String anchor) {
+            frames.push(Frame.COMPOSED);
+            try {
+                return super.composeSequenceNode(anchor);
+            } finally {
+                frames.pop();
+            }
+        }
+
+        @Override
+        protected Node composeMappingNode(String anchor) {
+            Frame parent = frames.peek();
+            String tag = ((MappingStartEvent) parser.peekEvent()).getTag();
+            boolean load = anchor == null && (tag == null || tag.equals("!"))
+                    && (parent == null || (parent.loading && parent.key != null && !options().lazySections()));
+
+            Frame frame = load ? new Frame(parent, true) : Frame.COMPOSED;
+            frames.push(frame);
+            Node node;
+            try {
+                node = super.composeMappingNode(anchor);
+            } finally {
+                frames.pop();
+            }
+
+            if (frame.loading) {
+                section(frame);
+                if (parent == null) {
+                    root = (MappingNode) node;
+                } else {
+                    loaded = (MappingNode) node;
+                }
+            }
+            return node;
+        }
+
+        @Override
+        protected void composeMappingChildren(List<NodeTuple> children, MappingNode node) {
+            Frame frame = frames.peek();
+            if (!frame.loading) {
+                super.composeMappingChildren(children, node);
+                return;
+            }
+
+            Node key = composeKeyNode(node);
+            if (frame.parent == null && frame.section == null) {
+                adjustNodeComments(node, key);
+            }
+
+            if (frame.parent != null && isSerializedTypeKey(key)) {
+                // a serialized object, which is constructed from its node
+                frame.loading = false;
+                if (frame.section != null) {
+                    children.addAll(((MappingNode) engine.representer.represent(frame.section)).getValue());
+                    frame.parent.section.set(frame.parent.key, null);
+                    frame.section = null;
+                }
+                children.add(new NodeTuple(key, composeValueNode(node)));
+                return;
+            }
+
+            ConfigurationSection section = section(frame);
+            if (key.getTag().equals(Tag.MERGE)) {
+                merge(frame, key, composeValueNode(node));
+                return;
+            }
+
+            Object keyObject = construct(engine, key);
+            String keyString = String.valueOf(keyObject);
+            if (!frame.explicitKeys.add(keyObject) && !frame.mergedKeys.contains(keyObject) && !hasOtherKey(frame, keyObject, keyString)) {
+                removeDuplicate(section, keyString);
+            }
+            frame.keys.add(keyObject);
+
+            Node value;
+            frame.key = keyString;
+            try {
+                value = composeValueNode(node);
+            } finally {
+                frame.key = null;
+            }
+
+            boolean wasLoaded = value == loaded;
+            loaded = null;
+            fromNodeTuple(engine, section, keyString, key, value, wasLoaded);
+            if (recorder != null) {
+                boolean replaceable = node.getFlowStyle() == DumperOptions.FlowStyle.BLOCK && value instanceof ScalarNode
+                        && value.getAnchor() == null && keyString.indexOf(options().pathSeparator()) == -1;
+                recorder.record(section, keyString, replaceable ? (ScalarNode) value : null);
+            }
+        }
+
+        /**
+         * Loads the values of a merge key into the section of the given
+         * frame, unless the section already has their keys. Values of later
+         * keys replace merged values, as they are set in place.
+         */
+        private void merge(@NotNull Frame frame, @NotNull Node key, @NotNull Node value) {
+            List<NodeTuple> tuples = new ArrayList<>(1);
+            tuples.add(new NodeTuple(key, value));
+            MappingNode merge = new MappingNode(Tag.MAP, tuples, DumperOptions.FlowStyle.BLOCK);
+            merge.setMerged(true);
+            engine.constructor.flattenMapping(merge);
+
+            for (NodeTuple tuple : merge.getValue()) {
+                Object keyObject = construct(engine, tuple.getKeyNode());
+                if (frame.keys.add(keyObject)) {
+                    frame.mergedKeys.add(keyObject);
+                    fromNodeTuple(engine, frame.section, String.valueOf(keyObject), tuple.getKeyNode(), tuple.getValueNode(), false);
+                }
+            }
+        }
+
+        /**
+         * Checks whether another key of the mapping has the same string form,
+         * in which case its value is replaced in place.
+         */
+        private boolean hasOtherKey(@NotNull Frame frame, @Nullable Object keyObject, @NotNull String keyString) {
+            for (Object other : frame.keys) {
+                if (!Objects.equals(other, keyObject) && String.valueOf(other).equals(keyString)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Removes the value of a key which occurs again in a mapping, as only
+         * the last duplicate is kept by SafeConstructor#processDuplicateKeys.
+         * Sections left empty by a key containing the path separator are
+         * removed as well.
+         */
+        private void removeDuplicate(@NotNull ConfigurationSection section, @NotNull String path) {
+            section.set(path, null);
+
+            char separator = options().pathSeparator();
+            for (int i = path.lastIndexOf(separator); i > 0; i = path.lastIndexOf(separator, i - 1)) {
+                Object parent = section.get(path.substring(0, i), null);
+                if (!(parent instanceof ConfigurationSection) || !((ConfigurationSection) parent).getKeysView(false).isEmpty()) {
+                    break;
+                }
+                section.set(path.substring(0, i), null);
+            }
+        }
+
+        @NotNull
+        private ConfigurationSection section(@NotNull Frame frame) {
+            if (frame.section == null) {
+                frame.section = (frame.parent == null) ? YamlConfiguration.this : frame.parent.section.createSection(frame.parent.key);
+            }
+            return frame.section;
+        }
+    }
+
+    /**
+     * A scalar which is constructed once its value is first requested, see
+     * {@link YamlConfigurationOptions#lazyScalars()}. Until its value is
+     * replaced, it is saved with the text it was loaded from.
+     */
+    private final class DeferredScalar implements Supplier<Object> {
+        private final Tag tag;
+        private final String value;
+
+        private DeferredScalar(@NotNull ScalarNode node) {
+            this.tag = node.getTag();
+            this.value = node.getValue();
+        }
+
+        @Override
+        public Object get() {
+            if (!tag.equals(Tag.TIMESTAMP)) {
+                return SCALAR_CONSTRUCTOR.constructUnshared(toNode());
+            }
+            // the timestamp construct keeps the calendar it constructed last
+            Engine engine = Engine.acquire();
+            try {
+                return engine.constructor.constructUnshared(toNode());
+            } finally {
+                engine.release();
+            }
+        }
+
+        @NotNull
+        private ScalarNode toNode() {
+            return new ScalarNode(tag, value, null, null, DumperOptions.ScalarStyle.PLAIN);
+        }
+    }
+
+    /**
+     * Saves a section by walking it and emitting the events of its YAML
+     * representation straight to an {@link Emitter}, instead of building the
+     * node tree of the whole configuration first. Only the values which are
+     * not sections are represented as nodes, one at a time. The events are
+     * the same as those the SnakeYAML serializer emits for the node tree.
+     */
+    private final class SectionEmitter {
+        private final Engine engine;
+        private final Emitter emitter;
+        private final Map<Node, String> anchors = new IdentityHashMap<>();
+        private final Set<Node> serializedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        private boolean anchored;
+
+        private SectionEmitter(@NotNull Engine engine, @NotNull Writer writer) {
+            this.engine = engine;
+            this.emitter = new Emitter(writer, engine.dumperOptions);
+        }
+
+        private void emitDocument(@NotNull ConfigurationSection section, @NotNull Map<String, Object> values, @NotNull List<CommentLine> header, @NotNull List<CommentLine> footer) throws IOException {
+            startDocument();
+            emitComments(header);
+            emitSection(section, values, values.isEmpty() ? DumperOptions.FlowStyle.FLOW : DumperOptions.FlowStyle.BLOCK);
+            emitComments(footer);
+            endDocument();
+        }
+
+        private void startDocument() throws IOException {
+            DumperOptions options = engine.dumperOptions;
+            emitter.emit(new StreamStartEvent(null, null));
+            emitter.emit(new DocumentStartEvent(null, null, options.isExplicitStart(), options.getVersion(), options.getTags()));
+        }
+
+        private void endDocument() throws IOException {
+            emitter.emit(new DocumentEndEvent(null, null, engine.dumperOptions.isExplicitEnd()));
+            emitter.emit(new StreamEndEvent(null, null));
+        }
+
+        private void startMapping(@NotNull DumperOptions.FlowStyle flowStyle) throws IOException {
+            emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null, flowStyle));
+        }
+
+        private void endMapping() throws IOException {
+            emitter.emit(new MappingEndEvent(null, null));
+        }
+
+        /**
+         * Emits a plain string which is not part of the configuration.
+         */
+        private void emitPlaceholder(@NotNull String value) throws IOException {
+            emitter.emit(new ScalarEvent(null, Tag.STR.getValue(), new ImplicitTuple(true, false), value, null, null, DumperOptions.ScalarStyle.PLAIN));
+        }
+
+        private void emitSection(@NotNull ConfigurationSection section, @NotNull Map<String, Object> values, @NotNull DumperOptions.FlowStyle flowStyle) throws IOException {
+            startMapping(flowStyle);
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                emitEntry(section, entry.getKey(), entry.getValue());
+            }
+            endMapping();
+        }
+
+        private void emitEntry(@NotNull ConfigurationSection section, @NotNull String key, @Nullable Object value) throws IOException {
+            Supplier<?> deferred = (section instanceof MemorySection) ? getDeferred((MemorySection) section, key) : null;
+            if (!(deferred instanceof DeferredScalar) && value instanceof ConfigurationSection) {
+                ConfigurationSection child = (ConfigurationSection) value;
+                emitKey(section, key);
+                emitSection(child, child.getValuesView(false), DumperOptions.FlowStyle.BLOCK);
+                return;
+            }
+
+            Node keyNode = engine.representer.represent(key);
+            keyNode.setBlockComments(getCommentLines(section.getComments(key), CommentType.BLOCK));
+            Node valueNode = (deferred instanceof DeferredScalar) ? ((DeferredScalar) deferred).toNode() : engine.representer.represent(value);
+            List<CommentLine> inlineComments = getCommentLines(section.getInlineComments(key), CommentType.IN_LINE);
+            if (valueNode instanceof MappingNode || valueNode instanceof SequenceNode) {
+                keyNode.setInLineComments(inlineComments);
+            } else {
+                valueNode.setInLineComments(inlineComments);
+            }
+            emitNode(keyNode);
+            // values never share nodes, so each is anchored on its own
+            anchorNode(valueNode);
+            emitNode(valueNode);
+            anchors.clear();
+            serializedNodes.clear();
+        }
+
+        /**
+         * Emits the key of a section with its comments, to be followed by
+         * the mapping of the section.
+         */
+        private void emitKey(@NotNull ConfigurationSection section, @NotNull String key) throws IOException {
+            Node keyNode = engine.representer.represent(key);
+            keyNode.setBlockComments(getCommentLines(section.getComments(key), CommentType.BLOCK));
+            keyNode.setInLineComments(getCommentLines(section.getInlineComments(key), CommentType.IN_LINE));
+            emitNode(keyNode);
+        }
+
+        /**
+         * Names the nodes which are referenced more than once, like
+         * the SnakeYAML serializer does.
+         */
+        private void anchorNode(@NotNull Node node) {
+            if (node.getNodeId() == NodeId.anchor) {
+                node = ((AnchorNode) node).getRealNode();
+            }
+            if (anchors.containsKey(node)) {
+                if (anchors.get(node) == null) {
+                    anchors.put(node, anchorGenerator.nextAnchor(node));
+                    anchored = true;
+                }
+                return;
+            }
+
+            anchors.put(node, (node.getAnchor() != null) ? anchorGenerator.nextAnchor(node) : null);
+            anchored |= node.getAnchor() != null;
+            if (node instanceof SequenceNode) {
+                for (Node item : ((SequenceNode) node).getValue()) {
+                    anchorNode(item);
+                }
+            } else if (node instanceof MappingNode) {
+                for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+                    anchorNode(tuple.getKeyNode());
+                    anchorNode(tuple.getValueNode());
+                }
+            }
+        }
+
+        /**
+         * Emits the events of a node, like the SnakeYAML serializer does.
+         */
+        private void emitNode(@NotNull Node node) throws IOException {
+            if (node.getNodeId() == NodeId.anchor) {
+                node = ((AnchorNode) node).getRealNode();
+            }
+            String anchor = anchors.get(node);
+            if (!serializedNodes.add(node)) {
+                emitter.emit(new AliasEvent(anchor, null, null));
+                return;
+            }
+
+            emitComments(node.getBlockComments());
+            if (node instanceof ScalarNode) {
+                ScalarNode scalar = (ScalarNode) node;
+                Tag detectedTag = engine.resolver.resolve(NodeId.scalar, scalar.getValue(), true);
+                Tag defaultTag = engine.resolver.resolve(NodeId.scalar, scalar.getValue(), false);
+                ImplicitTuple implicit = new ImplicitTuple(node.getTag().equals(detectedTag), node.getTag().equals(defaultTag));
+                emitter.emit(new ScalarEvent(anchor, node.getTag().getValue(), implicit, scalar.getValue(), null, null, scalar.getScalarStyle()));
+            } else if (node instanceof SequenceNode) {
+                SequenceNode sequence = (SequenceNode) node;
+                boolean implicit = node.getTag().equals(engine.resolver.resolve(NodeId.sequence, null, true));
+                emitter.emit(new SequenceStartEvent(anchor, node.getTag().getValue(), implicit, null, null, sequence.getFlowStyle()));
+                for (Node item : sequence.getValue()) {
+                    emitNode(item);
+                }
+                emitter.emit(new SequenceEndEvent(null, null));
+            } else {
+                MappingNode mapping = (MappingNode) node;
+                if (mapping.getTag() == Tag.COMMENT) {
+                    return;
+                }
+                boolean implicit = node.getTag().equals(engine.resolver.resolve(NodeId.mapping, null, true));
+                emitter.emit(new MappingStartEvent(anchor, node.getTag().getValue(), implicit, null, null, mapping.getFlowStyle()));
+                for (NodeTuple tuple : mapping.getValue()) {
+                    emitNode(tuple.getKeyNode());
+                    emitNode(tuple.getValueNode());
+                }
+                emitter.emit(new MappingEndEvent(null, null));
+            }
+            emitComments(node.getInLineComments());
+            emitComments(node.getEndComments());
+        }
+
+        private void emitComments(@Nullable List<CommentLine> comments) throws IOException {
+            if (comments == null) {
+                return;
+            }
+            for (CommentLine comment : comments) {
+                emitter.emit(new CommentEvent(comment.getCommentType(), comment.getValue(), comment.getStartMark(), comment.getEndMark()));
+            }
+        }
+    }
+
+    /**
+     * Saves the configuration like {@link SectionEmitter} does, but reuses
+     * the text of the top level sections and their subsections which did not
+     * change since the previous save, see {@link
+     * YamlConfigurationOptions#cacheSections()}.
+     * <p>
+     * The document is put together from parts which each start at the
+     * beginning of a line and end with a line break: the header, runs of
+     * entries, the key lines of top level sections, and the footer. Every
+     * part is emitted as a document of its own, in which the entries are
+     * nested in placeholder mappings to get the indentation they have in the
+     * configuration, and the placeholders are then cut off. The emitter
+     * writes the same text for a part wherever it is, so the parts add up
+     * to the document {@link SectionEmitter} writes.
+     */
+    private final class FragmentWriter {
+        private final Engine engine;
+        private final Writer writer;
+        private final String format;
+        private final Map<ConfigurationSection, Fragment> previous;
+        private final Map<ConfigurationSection, Fragment> written = new IdentityHashMap<>();
+
+        private FragmentWriter(@NotNull Engine engine, @NotNull Writer writer) {
+            this.engine = engine;
+            this.writer = writer;
+            this.format = format();
+            this.previous = format.equals(fragmentFormat) ? fragments : Collections.emptyMap();
+        }
+
+        private void writeDocument(@NotNull Map<String, Object> values, @NotNull List<CommentLine> header, @NotNull List<CommentLine> footer) throws IOException {
+            // the previous fragments are dropped if anything fails
+            fragments = Collections.emptyMap();
+            String placeholder = FRAGMENT_PLACEHOLDER + ": " + FRAGMENT_PLACEHOLDER + "\n";
+            if (!header.isEmpty()) {
+                writer.write(cutSuffix(emitComments(header, Collections.emptyList()), placeholder));
+            }
+            appendEntries(new StringBuilder(), YamlConfiguration.this, values, 0);
+            if (!footer.isEmpty()) {
+                writer.write(cutPrefix(emitComments(Collections.emptyList(), footer), placeholder));
+            }
+            fragments = written;
+            fragmentFormat = format;
+        }
+
+        /**
+         * Appends the entries of a section at the given depth, and writes
+         * them out right away if they belong to the root section.
+         *
+         * @return Whether the text can be reused, which it cannot be if it
+         *     names anchors.
+         */
+        private boolean appendEntries(@NotNull StringBuilder out, @NotNull ConfigurationSection section, @NotNull Map<String, Object> values, int depth) throws IOException {
+            boolean reusable = true;
+            List<Map.Entry<String, Object>> run = new ArrayList<>();
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                if (depth < 2 && entry.getValue() instanceof MemorySection && getDeferred((MemorySection) section, entry.getKey()) == null) {
+                    reusable &= appendRun(out, section, run, depth);
+                    run.clear();
+                    reusable &= appendSection(out, section, entry.getKey(), (MemorySection) entry.getValue(), depth);
+                    flush(out, depth);
+                } else {
+                    run.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+                }
+            }
+            reusable &= appendRun(out, section, run, depth);
+            flush(out, depth);
+            return reusable;
+        }
+
+        private void flush(@NotNull StringBuilder out, int depth) throws IOException {
+            if (depth == 0) {
+                writer.append(out);
+                out.setLength(0);
+            }
+        }
+
+        private boolean appendSection(@NotNull StringBuilder out, @NotNull ConfigurationSection parent, @NotNull String key, @NotNull MemorySection section, int depth) throws IOException {
+            List<String> comments = parent.getComments(key);
+            List<String> inlineComments = parent.getInlineComments(key);
+            Fragment fragment = previous.get(section);
+            if (fragment != null && fragment.modifications == getModifications(section)
+                    && fragment.comments.equals(comments) && fragment.inlineComments.equals(inlineComments)) {
+                out.append(fragment.text);
+                written.put(section, fragment);
+                return true;
+            }
+
+            int start = out.length();
+            boolean reusable;
+            Map<String, Object> values = section.getValuesView(false);
+            String keyLine = (depth == 0 && !values.isEmpty()) ? emitKeyLine(parent, key) : null;
+            if (keyLine != null) {
+                out.append(keyLine);
+                reusable = appendEntries(out, section, values, depth + 1);
+            } else {
+                reusable = appendRun(out, parent, Collections.singletonList(new AbstractMap.SimpleImmutableEntry<>(key, section)), depth);
+            }
+            if (reusable) {
+                written.put(section, new Fragment(getModifications(section), comments, inlineComments, out.substring(start)));
+            }
+            return reusable;
+        }
+
+        /**
+         * Appends entries which are emitted together.
+         */
+        private boolean appendRun(@NotNull StringBuilder out, @NotNull ConfigurationSection section, @NotNull List<Map.Entry<String, Object>> run, int depth) throws IOException {
+            if (run.isEmpty()) {
+                return true;
+            }
+            StringWriter text = new StringWriter();
+            SectionEmitter emitter = new SectionEmitter(engine, text);
+            emitter.startDocument();
+            for (int i = 0; i < depth; i++) {
+                emitter.startMapping(DumperOptions.FlowStyle.BLOCK);
+                emitter.emitPlaceholder(FRAGMENT_PLACEHOLDER);
+            }
+            emitter.startMapping(DumperOptions.FlowStyle.BLOCK);
+            for (Map.Entry<String, Object> entry : run) {
+                emitter.emitEntry(section, entry.getKey(), entry.getValue());
+            }
+            for (int i = 0; i <= depth; i++) {
+                emitter.endMapping();
+            }
+            emitter.endDocument();
+
+            out.append(cutPrefix(text.toString(), placeholderLines(depth)));
+            return !emitter.anchored;
+        }
+
+        /**
+         * Emits the key of a top level section with its comments, up to the
+         * line of its first entry.
+         *
+         * @return The key lines, or null if the entries of the section do
+         *     not start on a line of their own.
+         */
+        @Nullable
+        private String emitKeyLine(@NotNull ConfigurationSection parent, @NotNull String key) throws IOException {
+            StringWriter text = new StringWriter();
+            SectionEmitter emitter = new SectionEmitter(engine, text);
+            emitter.startDocument();
+            emitter.startMapping(DumperOptions.FlowStyle.BLOCK);
+            emitter.emitKey(parent, key);
+            emitter.startMapping(DumperOptions.FlowStyle.BLOCK);
+            emitter.emitPlaceholder(FRAGMENT_PLACEHOLDER);
+            emitter.emitPlaceholder(FRAGMENT_PLACEHOLDER);
+            emitter.endMapping();
+            emitter.endMapping();
+            emitter.endDocument();
+
+            String placeholder = placeholderLines(2).substring(placeholderLines(1).length(), placeholderLines(2).length() - 1) + " " + FRAGMENT_PLACEHOLDER + "\n";
+            String lines = text.toString();
+            return lines.endsWith("\n" + placeholder) ? lines.substring(0, lines.length() - placeholder.length()) : null;
+        }
+
+        @NotNull
+        private String emitComments(@NotNull List<CommentLine> header, @NotNull List<CommentLine> footer) throws IOException {
+            StringWriter text = new StringWriter();
+            SectionEmitter emitter = new SectionEmitter(engine, text);
+            emitter.startDocument();
+            emitter.emitComments(header);
+            emitter.startMapping(DumperOptions.FlowStyle.BLOCK);
+            emitter.emitPlaceholder(FRAGMENT_PLACEHOLDER);
+            emitter.emitPlaceholder(FRAGMENT_PLACEHOLDER);
+            emitter.endMapping();
+            emitter.emitComments(footer);
+            emitter.endDocument();
+            return text.toString();
+        }
+
+        /**
+         * Gets the lines of the placeholder mappings the entries at the given
+         * depth are nested in.
+         */
+        @NotNull
+        private String placeholderLines(int depth) {
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < depth; i++) {
+                for (int column = i * options().indent(); column > 0; column--) {
+                    lines.append(' ');
+                }
+                lines.append(FRAGMENT_PLACEHOLDER).append(":\n");
+            }
+            return lines.toString();
+        }
+
+        @NotNull
+        private String cutPrefix(@NotNull String text, @NotNull String prefix) {
+            if (!text.startsWith(prefix)) {
+                throw new IllegalStateException("Unexpected fragment " + text);
+            }
+            return text.substring(prefix.length());
+        }
+
+        @NotNull
+        private String cutSuffix(@NotNull String text, @NotNull String suffix) {
+            if (!text.endsWith(suffix)) {
+                throw new IllegalStateException("Unexpected fragment " + text);
+            }
+            return text.substring(0, text.length() - suffix.length());
+        }
+    }
+
+    /**
+     * Keeps the text of a document while it is read, and records where the
+     * values which can be replaced in it are, see {@link
+     * YamlConfigurationOptions#patchSaves()}.
+     */
+    private static final class TextRecorder extends FilterReader {
+        private final StringBuilder text = new StringBuilder();
+        private final Map<ConfigurationSection, Map<String, LoadedValue>> scalars = new IdentityHashMap<>();
+        private int codePoints;
+        private int chars;
+
+        private TextRecorder(@NotNull Reader reader) {
+            super(reader);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c != -1) {
+                text.append((char) c);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                text.append(buffer, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            Preconditions.checkArgument(count >= 0, "Count cannot be negative");
+
+            // the skipped text is read, so that it is still recorded
+            char[] scratch = new char[(int) Math.min(count, 8192)];
+            long skipped = 0;
+            while (skipped < count) {
+                int read = read(scratch, 0, (int) Math.min(count - skipped, scratch.length));
+                if (read == -1) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * Records the text of the value of a key, or forgets it if the value
+         * cannot be replaced.
+         */
+        private void record(@NotNull ConfigurationSection section, @NotNull String key, @Nullable ScalarNode node) {
+            Map<String, LoadedValue> values = scalars.computeIfAbsent(section, ignored -> new HashMap<>());
+            if (node == null || node.getStartMark() == null || node.getEndMark() == null
+                    || node.getStartMark().getLine() != node.getEndMark().getLine()
+                    || (!node.isPlain() && node.getScalarStyle() != DumperOptions.ScalarStyle.SINGLE_QUOTED
+                    && node.getScalarStyle() != DumperOptions.ScalarStyle.DOUBLE_QUOTED)) {
+                values.remove(key);
+                return;
+            }
+            int start = charIndex(node.getStartMark().getIndex());
+            values.put(key, new LoadedValue(start, charIndex(node.getEndMark().getIndex())));
+        }
+
+        /**
+         * Converts an index in code points, as SnakeYAML counts them, to an
+         * index in the text.
+         */
+        private int charIndex(int index) {
+            if (index < codePoints) {
+                codePoints = 0;
+                chars = 0;
+            }
+            while (codePoints < index) {
+                chars += Character.charCount(text.codePointAt(chars));
+                codePoints++;
+            }
+            return chars;
+        }
+    }
+
+    /**
+     * The text a configuration was loaded from, and the values it was loaded
+     * as.
+     */
+    private static final class LoadedText {
+        private String text;
+        private final String format;
+        private final List<String> header;
+        private final List<String> footer;
+        private final Map<ConfigurationSection, LoadedSection> sections = new IdentityHashMap<>();
+        /**
+         * The values whose text can be replaced, in the order of the text.
+         */
+        private final List<LoadedValue> scalars = new ArrayList<>();
+
+        private LoadedText(@NotNull String text, @NotNull String format, @NotNull List<String> header, @NotNull List<String> footer) {
+            this.text = text;
+            this.format = format;
+            this.header = header;
+            this.footer = footer;
+        }
+    }
+
+    private static final class LoadedSection {
+        private int modifications;
+        private final Map<String, LoadedValue> values = new LinkedHashMap<>();
+
+        private LoadedSection(int modifications) {
+            this.modifications = modifications;
+        }
+    }
+
+    /**
+     * A loaded value, with the range of its text if it can be replaced, or
+     * -1 otherwise.
+     */
+    private static final class LoadedValue {
+        private int start;
+        private int end;
+        private Object value;
+        private List<String> comments;
+        private List<String> inlineComments;
+        /**
+         * The text the value is replaced with.
+         */
+        private String text;
+
+        private LoadedValue(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * The text a section was saved as, see {@link FragmentWriter}.
+     */
+    private static final class Fragment {
+        private final int modifications;
+        private final List<String> comments;
+        private final List<String> inlineComments;
+        private final String text;
+
+        private Fragment(int modifications, @NotNull List<String> comments, @NotNull List<String> inlineComments, @NotNull String text) {
+            this.modifications = modifications;
+            this.comments = comments;
+            this.inlineComments = inlineComments;
+            this.text = text;
+        }
+    }
+
+    /**
+     * The SnakeYAML objects loading and saving configurations, which are
+     * shared by all configurations instead of being created for each one.
+     * An engine is only used by one load or save at a time: it is taken from
+     * the idle engines with {@link #acquire()}, or created if there is none,
+     * and given back with {@link #release()}. The options which may differ
+     * between configurations are set by each load and save.
+     */
+    private static final class Engine {
+        private static final BlockingQueue<Engine> IDLE = new ArrayBlockingQueue<>(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+        private final DumperOptions dumperOptions;
+        private final LoaderOptions loaderOptions;
+        private final YamlConstructor constructor;
+        private final YamlRepresenter representer;
+        private final Resolver resolver;
+        private final Yaml yaml;
+
+        private Engine() {
+            dumperOptions = new DumperOptions();
+            dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+            loaderOptions = new LoaderOptions();
+            loaderOptions.setMaxAliasesForCollections(Integer.MAX_VALUE); // SPIGOT-5881: Not ideal, but was default pre SnakeYAML 1.26
+            loaderOptions.setCodePointLimit(Integer.MAX_VALUE); // SPIGOT-7161: Not ideal, but was default pre SnakeYAML 1.32
+
+            constructor = new YamlConstructor(loaderOptions);
+            representer = new YamlRepresenter(dumperOptions);
+            representer.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+
+            resolver = new YamlResolver();
+
+            // also configures the constructor and representer for the options
+            yaml = new Yaml(constructor, representer, dumperOptions, loaderOptions, resolver);
+        }
+
+        @NotNull
+        private static Engine acquire() {
+            Engine engine = IDLE.poll();
+            return (engine == null) ? new Engine() : engine;
+        }
+
+        private void release() {
+            constructor.clearConstructedObjects();
+            IDLE.offer(this);
+        }
+    }
+
+    /**
+     * A mapping being composed by a {@link SectionComposer}.
+     */
+    private static final class Frame {
+        /**
+         * The frame of nodes which are composed rather than loaded.
+         */
+        private static final Frame COMPOSED = new Frame(null, false);
+
+        private final Frame parent;
+        private final Set<Object> keys = new HashSet<>();
+        private final Set<Object> explicitKeys = new HashSet<>();
+        private final Set<Object> mergedKeys = new HashSet<>();
+        private boolean loading;
+        private ConfigurationSection section;
+        private String key;
+
+        private Frame(@Nullable Frame parent, boolean loading) {
+            this.parent = parent;
+            this.loading = loading;
+        }
+    }
 }
@@ -12,6 +12,10 @@ import org.jetbrains.annotations.Nullable;
 public class YamlConfigurationOptions extends FileConfigurationOptions {
     private int indent = 2;
     private int width = 80;
+    private boolean lazySections = false;
+    private boolean lazyScalars = false;
+    private boolean cacheSections = false;
+    private boolean patchSaves = false;
 
     protected YamlConfigurationOptions(@NotNull YamlConfiguration configuration) {
         super(configuration);
@@ -37,6 +41,13 @@ public class YamlConfigurationOptions extends FileConfigurationOptions {
         return this;
     }
 
+    @NotNull
+    @Override
+    public YamlConfigurationOptions pathIndex(boolean value) {
+        super.pathIndex(value);
+        return this;
+    }
+
     @NotNull
     @Override
     public YamlConfigurationOptions setHeader(@Nullable List<String> value) {
@@ -122,4 +133,159 @@ public class YamlConfigurationOptions extends FileConfigurationOptions {
         this.width = value;
         return this;
     }
+
+    /**
+     * Gets if the subsections of a loaded {@link YamlConfiguration} are
+     * built only when they are first accessed.
+     * <p>
+     * If this is true, the configuration keeps the parsed nodes of every
+     * subsection until the section is read, written, iterated or saved, and
+     * only then puts their values into the section. This makes loading
+     * cheaper when most of the document is never read. Errors constructing a
+     * value, like an invalid serialized object, are only thrown once its
+     * section is accessed. The default value is false.
+     *
+     * @return Whether or not subsections are loaded lazily
+     */
+    public boolean lazySections() {
+        return lazySections;
+    }
+
+    /**
+     * Sets if the subsections of a loaded {@link YamlConfiguration} are
+     * built only when they are first accessed.
+     * <p>
+     * If this is true, the configuration keeps the parsed nodes of every
+     * subsection until the section is read, written, iterated or saved, and
+     * only then puts their values into the section. This makes loading
+     * cheaper when most of the document is never read. Errors constructing a
+     * value, like an invalid serialized object, are only thrown once its
+     * section is accessed. The default value is false.
+     *
+     * @param value Whether or not subsections are loaded lazily
+     * @return This object, for chaining
+     */
+    @NotNull
+    public YamlConfigurationOptions lazySections(boolean value) {
+        this.lazySections = value;
+        return this;
+    }
+
+    /**
+     * Gets if numbers, booleans and timestamps of a loaded {@link
+     * YamlConfiguration} are only converted when they are first requested.
+     * <p>
+     * If this is true, plain scalars of these types keep their text until
+     * their value is requested, and the text is saved as it was loaded for as
+     * long as the value is not replaced, instead of being formatted again.
+     * Strings and other values are converted while loading. The default
+     * value is false.
+     *
+     * @return Whether or not scalars are converted lazily
+     */
+    public boolean lazyScalars() {
+        return lazyScalars;
+    }
+
+    /**
+     * Sets if numbers, booleans and timestamps of a loaded {@link
+     * YamlConfiguration} are only converted when they are first requested.
+     * <p>
+     * If this is true, plain scalars of these types keep their text until
+     * their value is requested, and the text is saved as it was loaded for as
+     * long as the value is not replaced, instead of being formatted again.
+     * Strings and other values are converted while loading. The default
+     * value is false.
+     *
+     * @param value Whether or not scalars are converted lazily
+     * @return This object, for chaining
+     */
+    @NotNull
+    public YamlConfigurationOptions lazyScalars(boolean value) {
+        this.lazyScalars = value;
+        return this;
+    }
+
+    /**
+     * Gets if the saved text of the top level sections of a {@link
+     * YamlConfiguration}, and of their subsections, is kept to be reused by
+     * the next save.
+     * <p>
+     * If this is true, a save only formats the sections which were changed
+     * since the previous save, and reuses the text of the others. Changes are
+     * only noticed if they are made through the configuration, so a value
+     * which is modified in place, such as a list, must be set again for the
+     * change to be saved. The default value is false.
+     *
+     * @return Whether or not the text of saved sections is reused
+     */
+    public boolean cacheSections() {
+        return cacheSections;
+    }
+
+    /**
+     * Sets if the saved text of the top level sections of a {@link
+     * YamlConfiguration}, and of their subsections, is kept to be reused by
+     * the next save.
+     * <p>
+     * If this is true, a save only formats the sections which were changed
+     * since the previous save, and reuses the text of the others. Changes are
+     * only noticed if they are made through the configuration, so a value
+     * which is modified in place, such as a list, must be set again for the
+     * change to be saved. The default value is false.
+     *
+     * @param value Whether or not the text of saved sections is reused
+     * @return This object, for chaining
+     */
+    @NotNull
+    public YamlConfigurationOptions cacheSections(boolean value) {
+        this.cacheSections = value;
+        return this;
+    }
+
+    /**
+     * Gets if a {@link YamlConfiguration} keeps the text it was loaded from,
+     * to save changed values by replacing their text in it.
+     * <p>
+     * If this is true and only values which are written on a single line
+     * in a block mapping, such as numbers, booleans and strings, were changed
+     * since the configuration was loaded, a save writes the loaded text with
+     * the text of those values replaced. The formatting, quoting and comments
+     * of the rest of the text are kept as they were. Any other change, like
+     * adding or removing a key or changing a comment, causes the whole
+     * configuration to be saved as usual. Changes are only noticed if they
+     * are made through the configuration, see {@link #cacheSections()}. The
+     * text is not kept if comments are not parsed, or if sections or scalars
+     * are loaded lazily. The default value is false.
+     *
+     * @return Whether or not changed values are saved into the loaded text
+     */
+    public boolean patchSaves() {
+        return patchSaves;
+    }
+
+    /**
+     * Sets if a {@link YamlConfiguration} keeps the text it was loaded from,
+     * to save changed values by replacing their text in it.
+     * <p>
+     * If this is true and only values which are written on a single line
+     * in a block mapping, such as numbers, booleans and strings, were changed
+     * since the configuration was loaded, a save writes the loaded text with
+     * the text of those values replaced. The formatting, quoting and comments
+     * of the rest of the text are kept as they were. Any other change, like
+     * adding or removing a key or changing a comment, causes the whole
+     * configuration to be saved as usual. Changes are only noticed if they
+     * are made through the configuration, see {@link #cacheSections()}. The
+     * text is not kept if comments are not parsed, or if sections or scalars
+     * are loaded lazily. The default value is false.
+     *
+     * @param value Whether or not changed values are saved into the loaded
+     *     text
+     * @return This object, for chaining
+     */
+    @NotNull
+    public YamlConfigurationOptions patchSaves(boolean value) {
+        this.patchSaves = value;
+        return this;
+    }
 }
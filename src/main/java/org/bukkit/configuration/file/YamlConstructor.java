@@ -5,14 +5,21 @@ import java.util.Map;
 import org.bukkit.configuration.serialization.ConfigurationSerialization;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.constructor.SafeConstructor;
 import org.yaml.snakeyaml.error.YAMLException;
 import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.ScalarNode;
 import org.yaml.snakeyaml.nodes.Tag;
 
 public class YamlConstructor extends SafeConstructor {
+    /**
+     * Whether nodes may have been constructed since the constructed objects
+     * were last cleared.
+     */
+    private boolean retained;
 
     /**
      * @deprecated options required
@@ -37,6 +44,41 @@ public class YamlConstructor extends SafeConstructor {
         return constructObject(node);
     }
 
+    @Override
+    protected Object constructObject(Node node) {
+        retained = true;
+        return super.constructObject(node);
+    }
+
+    /**
+     * Constructs a scalar without remembering the node it was constructed
+     * from, unless aliases may refer to it.
+     *
+     * @param node The scalar node.
+     * @return The constructed object.
+     */
+    @Nullable
+    Object constructUnshared(@NotNull ScalarNode node) {
+        if (node.getAnchor() != null) {
+            return constructObject(node);
+        }
+        return finalizeConstruction(node, getConstructor(node).construct(node));
+    }
+
+    /**
+     * Forgets the nodes constructed so far, which would otherwise keep the
+     * whole document reachable after it was loaded.
+     */
+    void clearConstructedObjects() {
+        if (!retained) {
+            return;
+        }
+        // SnakeYAML keeps the constructed objects in private fields, which
+        // only constructDocument clears
+        constructDocument(new ScalarNode(Tag.NULL, "", null, null, DumperOptions.ScalarStyle.PLAIN));
+        retained = false;
+    }
+
     private class ConstructCustomObject extends ConstructYamlMap {
 
         @Nullable
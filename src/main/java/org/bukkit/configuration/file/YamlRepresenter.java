@@ -35,7 +35,7 @@ public class YamlRepresenter extends Representer {
         @NotNull
         @Override
         public Node representData(@NotNull Object data) {
-            return super.representData(((ConfigurationSection) data).getValues(false));
+            return super.representData(((ConfigurationSection) data).getValuesView(false));
         }
     }
 
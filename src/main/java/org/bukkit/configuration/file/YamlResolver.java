@@ -0,0 +1,390 @@
+package org.bukkit.configuration.file;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+/**
+ * A {@link Resolver} which resolves the implicit tags of plain scalars by
+ * scanning their characters, instead of matching them against the regular
+ * expressions of the default resolver. The resolved YAML 1.1 tags are the
+ * same as those of the default resolver.
+ * <p>
+ * Implicit resolvers added with {@link #addImplicitResolver(Tag,
+ * java.util.regex.Pattern, String)} are still consulted for scalars which
+ * would otherwise be strings.
+ */
+public class YamlResolver extends Resolver {
+    /**
+     * The longest int or float the default resolver resolves.
+     */
+    private static final int NUMBER_LIMIT = 1024;
+    /**
+     * The longest timestamp the default resolver resolves.
+     */
+    private static final int TIMESTAMP_LIMIT = 50;
+
+    @Override
+    protected void addImplicitResolvers() {
+        // the default tags are resolved by resolveScalar
+    }
+
+    @Override
+    public Tag resolve(NodeId kind, String value, boolean implicit) {
+        if (kind == NodeId.scalar && implicit) {
+            Tag tag = resolveScalar(value);
+            if (tag != null) {
+                return tag;
+            }
+            if (yamlImplicitResolvers.isEmpty()) {
+                return Tag.STR;
+            }
+        }
+        return super.resolve(kind, value, implicit);
+    }
+
+    /**
+     * Resolves the implicit tag of a plain scalar like the default implicit
+     * resolvers do, in the same order.
+     *
+     * @param value The scalar.
+     * @return The tag, or null if the scalar is a string.
+     */
+    @Nullable
+    private static Tag resolveScalar(@NotNull String value) {
+        int length = value.length();
+        if (length == 0) {
+            return Tag.NULL;
+        }
+
+        char first = value.charAt(0);
+        switch (first) {
+            case 'y': case 'Y': case 'n': case 'N': case 't': case 'T': case 'f': case 'F': case 'o': case 'O':
+                if (isBool(value)) {
+                    return Tag.BOOL;
+                }
+                return (isNull(value)) ? Tag.NULL : null;
+            case '~':
+            case ' ':
+                return (length == 1) ? Tag.NULL : null;
+            case '<':
+                return (value.equals("<<")) ? Tag.MERGE : null;
+            case '!': case '&': case '*':
+                return (length == 1) ? Tag.YAML : null;
+            case '.':
+                return (length <= NUMBER_LIMIT && isFloat(value)) ? Tag.FLOAT : null;
+            case '-': case '+':
+                if (length > NUMBER_LIMIT) {
+                    return null;
+                }
+                if (isInt(value)) {
+                    return Tag.INT;
+                }
+                return (isFloat(value)) ? Tag.FLOAT : null;
+            default:
+                if (!isDigit(first)) {
+                    return null;
+                }
+                if (length <= NUMBER_LIMIT) {
+                    if (isInt(value)) {
+                        return Tag.INT;
+                    }
+                    if (isFloat(value)) {
+                        return Tag.FLOAT;
+                    }
+                }
+                return (length <= TIMESTAMP_LIMIT && isTimestamp(value)) ? Tag.TIMESTAMP : null;
+        }
+    }
+
+    private static boolean isBool(@NotNull String value) {
+        switch (value) {
+            case "yes": case "Yes": case "YES":
+            case "no": case "No": case "NO":
+            case "true": case "True": case "TRUE":
+            case "false": case "False": case "FALSE":
+            case "on": case "On": case "ON":
+            case "off": case "Off": case "OFF":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isNull(@NotNull String value) {
+        return value.equals("null") || value.equals("Null") || value.equals("NULL");
+    }
+
+    /**
+     * Matches binary ({@code 0b}), octal ({@code 0}), decimal, hexadecimal
+     * ({@code 0x}) and sexagesimal ({@code 1:30}) ints, with an optional
+     * sign and underscores between the digits.
+     */
+    private static boolean isInt(@NotNull String value) {
+        int length = value.length();
+        int i = skipSign(value, 0);
+        if (i == length) {
+            return false;
+        }
+
+        char c = value.charAt(i);
+        if (c == '0') {
+            if (i + 1 == length) {
+                return true;
+            }
+            switch (value.charAt(i + 1)) {
+                case 'b':
+                    return isRadixDigits(value, i + 2, 2);
+                case 'x':
+                    return isRadixDigits(value, i + 2, 16);
+                default:
+                    return isRadixDigits(value, i + 1, 8);
+            }
+        }
+        if (!isDigit(c)) {
+            return false;
+        }
+
+        int end = skipDigits(value, i + 1);
+        return end == length || isSexagesimal(value, end, length);
+    }
+
+    /**
+     * Matches floats with a fraction or an exponent, sexagesimal floats
+     * ({@code 1:30.5}), infinity and NaN.
+     */
+    private static boolean isFloat(@NotNull String value) {
+        int length = value.length();
+        int i = skipSign(value, 0);
+        if (i == length) {
+            return false;
+        }
+
+        char c = value.charAt(i);
+        if (c == '.') {
+            if (length - i == 4) {
+                if (value.startsWith("inf", i + 1) || value.startsWith("Inf", i + 1) || value.startsWith("INF", i + 1)) {
+                    return true;
+                }
+                if (i == 0 && (value.startsWith("nan", 1) || value.startsWith("NaN", 1) || value.startsWith("NAN", 1))) {
+                    return true;
+                }
+            }
+            int end = skipDigits(value, i + 1);
+            return end > i + 1 && (end == length || isExponent(value, end));
+        }
+        if (!isDigit(c)) {
+            return false;
+        }
+
+        int end = skipDigits(value, i + 1);
+        if (end == length) {
+            return false;
+        }
+        switch (value.charAt(end)) {
+            case '.':
+                end = skipDigits(value, end + 1);
+                return end == length || isExponent(value, end);
+            case 'e':
+            case 'E':
+                return isExponent(value, end);
+            case ':':
+                int dot = value.indexOf('.', end);
+                return dot != -1 && isSexagesimal(value, end, dot) && skipDigits(value, dot + 1) == length;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Matches dates ({@code 2001-12-14}) and date times with an optional
+     * fraction and time zone ({@code 2001-12-14t21:59:43.10-05:00}).
+     */
+    private static boolean isTimestamp(@NotNull String value) {
+        int length = value.length();
+        if (length < 8 || !isDigits(value, 0, 4) || value.charAt(4) != '-') {
+            return false;
+        }
+
+        int month = countDigits(value, 5, 2);
+        int i = 5 + month;
+        if (month == 0 || i >= length || value.charAt(i) != '-') {
+            return false;
+        }
+        int day = countDigits(value, i + 1, 2);
+        i += 1 + day;
+        if (day == 0) {
+            return false;
+        }
+        if (i == length) {
+            return month == 2 && day == 2;
+        }
+
+        char c = value.charAt(i);
+        if (c == 'T' || c == 't') {
+            i++;
+        } else if (c == ' ' || c == '\t') {
+            i = skipSpaces(value, i);
+        } else {
+            return false;
+        }
+
+        int hour = countDigits(value, i, 2);
+        i += hour;
+        if (hour == 0 || i + 6 > length || value.charAt(i) != ':' || !isDigits(value, i + 1, 2)
+                || value.charAt(i + 3) != ':' || !isDigits(value, i + 4, 2)) {
+            return false;
+        }
+        i += 6;
+        if (i < length && value.charAt(i) == '.') {
+            i = skipPlainDigits(value, i + 1);
+        }
+        if (i == length) {
+            return true;
+        }
+
+        i = skipSpaces(value, i);
+        if (i == length) {
+            return false;
+        }
+        c = value.charAt(i);
+        if (c == 'Z') {
+            return i + 1 == length;
+        }
+        if (c != '-' && c != '+') {
+            return false;
+        }
+        int zone = countDigits(value, i + 1, 2);
+        i += 1 + zone;
+        if (zone == 0) {
+            return false;
+        }
+        return i == length || (i + 3 == length && value.charAt(i) == ':' && isDigits(value, i + 1, 2));
+    }
+
+    /**
+     * Matches {@code _*} followed by a digit of the radix and any digits of
+     * the radix or underscores, up to the end of the value.
+     */
+    private static boolean isRadixDigits(@NotNull String value, int start, int radix) {
+        int length = value.length();
+        int i = start;
+        while (i < length && value.charAt(i) == '_') {
+            i++;
+        }
+        if (i == length || !isDigit(value.charAt(i), radix)) {
+            return false;
+        }
+        for (i++; i < length; i++) {
+            char c = value.charAt(i);
+            if (c != '_' && !isDigit(c, radix)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches {@code (?::[0-5]?[0-9])+} between the given indices.
+     */
+    private static boolean isSexagesimal(@NotNull String value, int start, int end) {
+        int i = start;
+        if (i == end) {
+            return false;
+        }
+        while (i < end) {
+            if (value.charAt(i) != ':' || i + 1 == end || !isDigit(value.charAt(i + 1))) {
+                return false;
+            }
+            if (i + 2 < end && isDigit(value.charAt(i + 2))) {
+                if (value.charAt(i + 1) > '5') {
+                    return false;
+                }
+                i += 3;
+            } else {
+                i += 2;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches {@code [eE][-+]?[0-9]+} up to the end of the value.
+     */
+    private static boolean isExponent(@NotNull String value, int start) {
+        char c = value.charAt(start);
+        if (c != 'e' && c != 'E') {
+            return false;
+        }
+        int i = skipSign(value, start + 1);
+        return i < value.length() && skipPlainDigits(value, i) == value.length();
+    }
+
+    private static int skipSign(@NotNull String value, int start) {
+        if (start < value.length()) {
+            char c = value.charAt(start);
+            if (c == '-' || c == '+') {
+                return start + 1;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Skips {@code [0-9_]*}.
+     */
+    private static int skipDigits(@NotNull String value, int start) {
+        int i = start;
+        while (i < value.length() && (isDigit(value.charAt(i)) || value.charAt(i) == '_')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Skips {@code [0-9]*}.
+     */
+    private static int skipPlainDigits(@NotNull String value, int start) {
+        int i = start;
+        while (i < value.length() && isDigit(value.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipSpaces(@NotNull String value, int start) {
+        int i = start;
+        while (i < value.length() && (value.charAt(i) == ' ' || value.charAt(i) == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Counts up to max digits at the given index.
+     */
+    private static int countDigits(@NotNull String value, int start, int max) {
+        int count = 0;
+        while (count < max && start + count < value.length() && isDigit(value.charAt(start + count))) {
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isDigits(@NotNull String value, int start, int count) {
+        return countDigits(value, start, count) == count;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDigit(char c, int radix) {
+        if (radix == 16) {
+            return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+        }
+        return c >= '0' && c < '0' + radix;
+    }
+}
@@ -1,6 +1,10 @@
 package com.yecraft.configuration;
 
+import org.bukkit.configuration.ConfigPath;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.ConfigurationVisitor;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.configuration.MemorySection;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
@@ -14,6 +18,7 @@ import java.nio.file.Path;
 import java.util.*;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
 class ConfigurationSectionTest {
 
@@ -43,6 +48,71 @@ class ConfigurationSectionTest {
         assertThat(values).matches(stringObjectMap -> stringObjectMap.containsKey("version"));
     }
 
+    @Test
+    void getKeysView() {
+        Set<String> keys = config.getKeysView(true);
+        config.set("section.nested", 1);
+        assertThat(keys).matches(set -> set.contains("section.nested") && set.contains("version"));
+        assertThat(config.getValuesView(false)).matches(map -> map.get("version").equals("1.0"));
+        assertThatThrownBy(() -> keys.remove("version")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void getKeysKeepsOrderOfLargeSection() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            config.set("section.key" + i, i);
+            expected.add("key" + i);
+        }
+        config.set("section.key3", null);
+        expected.remove("key3");
+        ConfigurationSection section = config.getConfigurationSection("section").orElseThrow();
+        assertThat(new ArrayList<>(section.getKeys(false))).isEqualTo(expected);
+        assertThat(section.getInt("key19")).isEqualTo(19);
+    }
+
+    @Test
+    void walk() {
+        config.set("section.list", List.of(1, 2));
+        config.set("section.skipped.value", 1);
+        config.set("section.value", "example");
+        List<String> visited = new ArrayList<>();
+        boolean completed = config.walk(new ConfigurationVisitor() {
+            @Override
+            public @NotNull Result enterSection(@NotNull ConfigurationSection section) {
+                visited.add(section.getCurrentPath());
+                return section.getName().equals("skipped") ? Result.SKIP_SUBTREE : Result.CONTINUE;
+            }
+
+            @Override
+            public @NotNull Result visitScalar(@NotNull ConfigurationSection section, @NotNull String key, @NotNull Object value) {
+                visited.add(MemorySection.createPath(section, key));
+                return key.equals("value") ? Result.TERMINATE : Result.CONTINUE;
+            }
+
+            @Override
+            public @NotNull Result visitList(@NotNull ConfigurationSection section, @NotNull String key, @NotNull List<?> value) {
+                visited.add(MemorySection.createPath(section, key));
+                return Result.CONTINUE;
+            }
+        }, true);
+        assertThat(completed).isFalse();
+        assertThat(visited).isEqualTo(List.of("version", "section", "section.list", "section.skipped", "section.value"));
+    }
+
+    @Test
+    void parallelStream() {
+        for (int i = 0; i < 100; i++) {
+            config.set("players.player" + i + ".score", i);
+        }
+        long sum = config.parallelStream(true)
+                .filter(entry -> entry.getKey().endsWith(".score"))
+                .mapToLong(entry -> ((Number) entry.getValue()).longValue())
+                .sum();
+        assertThat(sum).isEqualTo(4950L);
+        assertThat(config.stream(false).map(Map.Entry::getKey).toList()).isEqualTo(List.of("version", "players"));
+    }
+
     @Test
     void ifContains() {
         assertThat(config.contains("version")).isTrue();
@@ -124,6 +194,66 @@ class ConfigurationSectionTest {
         assertThat(section.get("example")).matches(str -> str.equals("example1"));
     }
 
+    @Test
+    void getWithConfigPath() {
+        config.set("section.nested.value", 5);
+        ConfigPath path = ConfigPath.of("section.nested.value");
+        assertThat(config.get(path)).hasValue(5);
+        assertThat(config.getInt(path)).hasValue(5);
+        assertThat(config.getInt(ConfigPath.of("section.missing"), 3)).isEqualTo(3);
+    }
+
+    @Test
+    void setWithConfigPath() {
+        config.set(ConfigPath.of("section/nested/value", '/'), "example");
+        assertThat(config.getString("section.nested.value")).hasValue("example");
+    }
+
+    @Test
+    void getWithPathIndex() {
+        config.getConfiguration().options().pathIndex(true);
+        config.set("section.nested.value", "example");
+        config.set("section.other", 1);
+        assertThat(config.getString("section.nested.value")).hasValue("example");
+        config.set("section", null);
+        assertThat(config.get("section.nested.value")).isEmpty();
+        assertThat(config.getKeys(true)).matches(keys -> !keys.contains("section.other"));
+    }
+
+    @Test
+    void setPrimitive() {
+        config.set("primitive.int", 1);
+        config.set("primitive.double", 1.5);
+        config.set("primitive.short", (short) 2);
+        assertThat(config.getDouble("primitive.int")).hasValue(1.0);
+        assertThat(config.getInt("primitive.double")).hasValue(1);
+        assertThat(config.get("primitive.double")).hasValue(1.5);
+        assertThat(config.get("primitive.short")).hasValue((short) 2);
+        config.set("primitive.int", "text");
+        assertThat(config.isInt("primitive.int")).isFalse();
+    }
+
+    @Test
+    void setPrimitiveThroughOverride() {
+        List<String> paths = new ArrayList<>();
+        MemoryConfiguration tracking = new MemoryConfiguration() {
+            @Override
+            public void set(@NotNull String path, Object value) {
+                paths.add(path);
+                super.set(path, value);
+            }
+        };
+        tracking.set("int", 1);
+        tracking.set("long", 2L);
+        tracking.set("double", 1.5);
+        tracking.set("section.boolean", true);
+        assertThat(paths.toString()).isEqualTo("[int, long, double, section.boolean]");
+        assertThat(tracking.getInt("int")).isEqualTo(1);
+        assertThat(tracking.getLong("long")).isEqualTo(2L);
+        assertThat(tracking.getDouble("double")).isEqualTo(1.5);
+        assertThat(tracking.getBoolean("section.boolean")).isTrue();
+    }
+
     @Test
     void getString() {
         Optional<String> version = config.getString("version");
@@ -153,6 +283,15 @@ class ConfigurationSectionTest {
         assertThat(config.getInt("non-exists", 0)).isEqualTo(0);
     }
 
+    @Test
+    void getOptionalInt() {
+        config.set("int", 0);
+        assertThat(config.getInt("int")).hasValue(0);
+        assertThat(config.getOptionalInt("int")).hasValue(0);
+        assertThat(config.getOptionalLong("non-exists")).isEmpty();
+        assertThat(config.getOptionalDouble(ConfigPath.of("int"))).hasValue(0.0);
+    }
+
     @Test
     void isInt() {
         config.set("int", 1);
@@ -335,6 +474,14 @@ class ConfigurationSectionTest {
         assertThat(config.isConfigurationSection("test")).isTrue();
     }
 
+    @Test
+    void getCurrentPathAfterSeparatorChange() {
+        config.createSection("test.nested");
+        config.getConfiguration().options().pathSeparator('/');
+        assertThat(config.getConfigurationSection("test/nested").map(ConfigurationSection::getCurrentPath)).hasValue("test/nested");
+        assertThat(config.getKeys(true)).matches(keys -> keys.contains("test/nested"));
+    }
+
     @Test
     void getDefaultSection() {
         Optional<ConfigurationSection> defaultSection = config.getDefaultSection();
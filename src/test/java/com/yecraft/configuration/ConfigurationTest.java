@@ -1,17 +1,46 @@
 package com.yecraft.configuration;
 
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.SaveMode;
+import org.bukkit.configuration.file.WriteBehindSaver;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.configuration.file.YamlConfigurationOptions;
+import org.bukkit.configuration.file.YamlResolver;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
 class ConfigurationTest {
 
@@ -88,6 +117,461 @@ class ConfigurationTest {
         assertThat(underTest.getString("string")).hasValue("string-change");
     }
 
+    @Test
+    void initializeWritesOnlyWhenChanged() throws Exception {
+        underTest.initialize();
+        assertThat(underTest.getString("version")).hasValue(version);
+        String edited = "# edited by hand\nstring:   'string-edited'\nversion: '1.0'\n";
+        Files.writeString(path, edited);
+        underTest.initialize();
+        assertThat(underTest.getString("string")).hasValue("string-edited");
+        assertThat(Files.readString(path)).isEqualTo(edited);
+
+        Config updated = new Config("1.1", LoggerFactory.getLogger(ConfigurationTest.class), path);
+        updated.initialize();
+        assertThat(Files.readString(path)).isNotEqualTo(edited);
+        assertThat(YamlConfiguration.loadConfiguration(path.toFile()).getString("version")).isEqualTo("1.1");
+    }
+
+    @Test
+    void asyncOperationsRunInOrder() throws Exception {
+        underTest.initializeAsync().get();
+        assertThat(underTest.getString("string")).hasValue("string");
+
+        List<Runnable> tasks = new CopyOnWriteArrayList<>();
+        underTest.setExecutor(task -> {
+            tasks.add(task);
+            new Thread(task).start();
+        });
+        underTest.set("string", "string-async");
+        CompletableFuture<Void> saved = underTest.saveAsync();
+        underTest.set("string", "string-unsaved");
+        FileConfiguration loaded = underTest.loadAsync().get();
+        assertThat(saved).isDone();
+        assertThat(tasks.size()).isEqualTo(2);
+        assertThat(loaded.getString("string")).isEqualTo("string-async");
+        assertThat(underTest.getString("string")).hasValue("string-async");
+    }
+
+    @Test
+    void writeBehindSaverCoalescesSaves() throws Exception {
+        List<Path> failures = new CopyOnWriteArrayList<>();
+        WriteBehindSaver saver = new WriteBehindSaver(1, 10, TimeUnit.SECONDS, Runnable::run)
+                .failureHandler((file, e) -> failures.add(file.toPath()));
+        underTest.initialize();
+        underTest.setSaver(saver);
+        String initial = Files.readString(path);
+        for (int i = 0; i < 500; i++) {
+            underTest.set("string", "string-" + i);
+            underTest.save();
+        }
+        assertThat(Files.readString(path)).isEqualTo(initial);
+        saver.flush();
+        assertThat(YamlConfiguration.loadConfiguration(path.toFile()).getString("string")).isEqualTo("string-499");
+
+        // asynchronous saves go through the saver too
+        underTest.set("string", "string-async");
+        CompletableFuture<Void> written = underTest.saveAsync();
+        underTest.save();
+        saver.flush();
+        written.get(10, TimeUnit.SECONDS);
+        assertThat(YamlConfiguration.loadConfiguration(path.toFile()).getString("string")).isEqualTo("string-async");
+
+        Path invalid = path.resolve("invalid.yml");
+        CompletableFuture<Void> failed = saver.save(underTest.getConfiguration(), invalid.toFile(), SaveMode.DIRECT);
+        saver.close();
+        assertThat(failed.isCompletedExceptionally()).isTrue();
+        assertThat(failures.size()).isEqualTo(1);
+        assertThat(failures.get(0)).isEqualTo(invalid.toAbsolutePath());
+        assertThatThrownBy(underTest::save).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void loadStreamsReader() throws Exception {
+        String contents = "\uFEFF# header\n\n# comment\nstring: string\nmap:\n  int: 1\n";
+        YamlConfiguration fromString = new YamlConfiguration();
+        fromString.loadFromString(contents);
+        YamlConfiguration fromReader = new YamlConfiguration();
+        fromReader.load(new StringReader(contents));
+        assertThat(fromReader.saveToString()).isEqualTo(fromString.saveToString());
+        assertThat(fromReader.getComments("string")).isEqualTo(List.of("comment"));
+
+        Reader failing = new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("failing");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        assertThatThrownBy(() -> fromReader.load(failing)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void saveStreamsToWriter() throws Exception {
+        underTest.initialize();
+        FileConfiguration configuration = underTest.getConfiguration();
+        StringWriter writer = new StringWriter();
+        configuration.save(writer);
+        assertThat(writer.toString()).isEqualTo(configuration.saveToString());
+        assertThat(Files.readString(path)).isEqualTo(configuration.saveToString());
+
+        // a configuration which cannot be saved leaves the file as it was
+        String saved = Files.readString(path);
+        configuration.set("unrepresentable", (ConfigurationSerializable) () -> {
+            throw new IllegalStateException("Cannot serialize");
+        });
+        assertThatThrownBy(() -> configuration.save(path.toFile())).isInstanceOf(RuntimeException.class);
+        assertThat(Files.readString(path)).isEqualTo(saved);
+        try (Stream<Path> files = Files.list(path.getParent())) {
+            assertThat(files.count()).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    void atomicSave() throws Exception {
+        underTest.setSaveMode(SaveMode.ATOMIC_SYNC);
+        underTest.initialize();
+        underTest.set("string", "string-atomic");
+        underTest.save();
+        assertThat(YamlConfiguration.loadConfiguration(path.toFile()).getString("string")).isEqualTo("string-atomic");
+        try (Stream<Path> files = Files.list(path.getParent())) {
+            assertThat(files.count()).isEqualTo(1L);
+        }
+
+        // concurrent saves of the same file use their own temporary files
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String contents = "string: string-" + i + "\n";
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int round = 0; round < 50; round++) {
+                        FileConfiguration.save(contents, path.toFile(), SaveMode.ATOMIC);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(failures.isEmpty()).isTrue();
+        assertThat(Files.readString(path)).matches("string: string-[0-3]\n");
+        try (Stream<Path> files = Files.list(path.getParent())) {
+            assertThat(files.count()).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    void atomicSaveKeepsPermissionsAndLinks() throws Exception {
+        Assumptions.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path directory = Files.createDirectory(path.resolveSibling("links"));
+        Path real = directory.resolve("real.yml");
+        Files.writeString(real, "string: old\n");
+        Files.setPosixFilePermissions(real, PosixFilePermissions.fromString("rw-r-----"));
+        Path link = Files.createSymbolicLink(directory.resolve("link.yml"), real);
+
+        FileConfiguration.save("string: new\n", link.toFile(), SaveMode.ATOMIC);
+        assertThat(Files.isSymbolicLink(link)).isTrue();
+        assertThat(Files.readString(real)).isEqualTo("string: new\n");
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(real))).isEqualTo("rw-r-----");
+
+        // a new file gets the permissions the umask gives any new file
+        Path created = directory.resolve("created.yml");
+        FileConfiguration.save("string: new\n", created.toFile(), SaveMode.ATOMIC);
+        Path probe = Files.createFile(directory.resolve("probe"));
+        assertThat(Files.getPosixFilePermissions(created)).isEqualTo(Files.getPosixFilePermissions(probe));
+    }
+
+    @Test
+    void loadMapsLargeFile() throws Exception {
+        StringBuilder contents = new StringBuilder("\uFEFF# header\n\n");
+        for (int i = 0; contents.length() < FileConfiguration.MAP_THRESHOLD; i++) {
+            contents.append("key").append(i).append(": 'v\u00e4lue \ud83d\ude00 ").append(i).append("'\n");
+        }
+        Files.writeString(path, contents);
+        YamlConfiguration mapped = new YamlConfiguration();
+        mapped.load(path);
+        assertThat(mapped.saveToString()).isEqualTo(YamlConfiguration.loadConfiguration(path.toFile()).saveToString());
+        assertThat(mapped.getString("key0")).isEqualTo("v\u00e4lue \ud83d\ude00 0");
+    }
+
+    @Test
+    void loadBuildsSectionsWhileParsing() throws Exception {
+        YamlConfiguration configuration = new YamlConfiguration();
+        configuration.loadFromString("# header\n\n# section\nbase: &base\n  int: 1\n  list: [a, b]\n"
+                + "copy:\n  <<: *base\n  # inline\n  int: 2 # side\nalias: *base\n");
+        assertThat(configuration.options().getHeader()).isEqualTo(List.of("header"));
+        assertThat(configuration.getComments("base")).isEqualTo(List.of("section"));
+        assertThat(configuration.getComments("copy.int")).isEqualTo(List.of("inline"));
+        assertThat(configuration.getInlineComments("copy.int")).isEqualTo(List.of("side"));
+        assertThat(configuration.getInt("copy.int")).isEqualTo(2);
+        assertThat(configuration.getList("copy.list")).isEqualTo(List.of("a", "b"));
+        assertThat(configuration.getInt("alias.int")).isEqualTo(1);
+
+        assertThatThrownBy(() -> configuration.loadFromString("base: [unclosed\n"))
+                .isInstanceOf(InvalidConfigurationException.class);
+        assertThat(configuration.getInt("copy.int")).isEqualTo(2);
+    }
+
+    @Test
+    void loadSectionsLazily() throws Exception {
+        String contents = "# header\n\nfirst:\n  # comment\n  value: 1\n  nested:\n    list: [a, b]\nsecond:\n  value: 2\nbroken:\n  value: !!int nope\n";
+        YamlConfiguration lazy = new YamlConfiguration();
+        lazy.options().lazySections(true);
+        lazy.loadFromString(contents);
+
+        assertThat(lazy.getInt("second.value")).isEqualTo(2);
+        assertThat(lazy.getComments("first.value")).isEqualTo(List.of("comment"));
+        assertThat(lazy.getConfigurationSection("first.nested").getKeys(false).size()).isEqualTo(1);
+        assertThatThrownBy(() -> lazy.get("broken.value")).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> lazy.getKeys(true)).isInstanceOf(RuntimeException.class);
+
+        lazy.set("broken", null);
+        YamlConfiguration eager = new YamlConfiguration();
+        eager.loadFromString(contents.substring(0, contents.indexOf("broken:")));
+        assertThat(lazy.saveToString()).isEqualTo(eager.saveToString());
+    }
+
+    @Test
+    void loadSectionsLazilyWithPathIndex() throws Exception {
+        String contents = "first:\n  # comment\n  value: 1\n  nested:\n    value: 3\nsecond:\n  value: 2\nbroken:\n  value: !!int nope\n";
+        YamlConfiguration lazy = new YamlConfiguration();
+        lazy.options().lazySections(true).pathIndex(true);
+        lazy.loadFromString(contents);
+
+        // the index leaves the sections to be loaded on their first access
+        assertThat(lazy.getInt("second.value")).isEqualTo(2);
+        assertThat(lazy.getInt("first.nested.value")).isEqualTo(3);
+        assertThat(lazy.getComments("first.value")).isEqualTo(List.of("comment"));
+        assertThat(lazy.get("missing.value")).isNull();
+        assertThatThrownBy(() -> lazy.get("broken.value")).isInstanceOf(RuntimeException.class);
+
+        lazy.set("broken", null);
+        lazy.set("first.added", 4);
+        assertThat(lazy.getInt("first.added")).isEqualTo(4);
+        assertThat(lazy.getKeys(true).size()).isEqualTo(7);
+    }
+
+    @Test
+    void lazyValuesAreReadConcurrently() throws Exception {
+        assertReadConcurrently(options -> options.lazySections(true).lazyScalars(true), options -> { });
+    }
+
+    @Test
+    void pathIndexIsReadConcurrently() throws Exception {
+        // enabled once loaded, so that the readers build the index
+        assertReadConcurrently(options -> { }, options -> options.pathIndex(true));
+    }
+
+    /**
+     * Reads freshly loaded configurations on several threads at once, with
+     * the given options set before and after loading them.
+     */
+    private void assertReadConcurrently(@NotNull Consumer<YamlConfigurationOptions> beforeLoad, @NotNull Consumer<YamlConfigurationOptions> afterLoad) throws Exception {
+        StringBuilder contents = new StringBuilder();
+        for (int section = 0; section < 8; section++) {
+            contents.append('s').append(section).append(":\n");
+            for (int key = 0; key < 200; key++) {
+                contents.append("  k").append(key).append(": ").append(key).append('\n');
+            }
+        }
+
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        for (int round = 0; round < 50; round++) {
+            YamlConfiguration configuration = new YamlConfiguration();
+            beforeLoad.accept(configuration.options());
+            configuration.loadFromString(contents.toString());
+            afterLoad.accept(configuration.options());
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                        for (int section = 0; section < 8; section++) {
+                            assertThat(configuration.getInt("s" + section + ".k199", -1)).isEqualTo(199);
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        assertThat(failures.isEmpty()).isTrue();
+    }
+
+    @Test
+    void loadScalarsLazily() throws Exception {
+        String contents = "hex: 0x1F # inline\nbig: 123456789012345678901\nratio: 1_000.5\nflag: true\ndate: 2020-01-05\nname: text\n";
+        YamlConfiguration lazy = new YamlConfiguration();
+        lazy.options().lazyScalars(true);
+        lazy.loadFromString(contents);
+
+        assertThat(lazy.getInt("hex")).isEqualTo(31);
+        assertThat(lazy.getDouble("ratio")).isEqualTo(1000.5);
+        assertThat(lazy.getBoolean("flag")).isTrue();
+        assertThat(lazy.get("big")).isEqualTo(new BigInteger("123456789012345678901"));
+        assertThat(lazy.saveToString()).isEqualTo(contents);
+
+        lazy.set("hex", 31);
+        assertThat(lazy.saveToString()).startsWith("hex: 31 # inline\n");
+        YamlConfiguration eager = new YamlConfiguration();
+        eager.loadFromString(contents);
+        assertThat(lazy.getValues(true)).isEqualTo(eager.getValues(true));
+
+        // explicitly tagged scalars are constructed while loading
+        lazy.loadFromString("tagged: !!int 5\n");
+        assertThat(lazy.saveToString()).isEqualTo("tagged: 5\n");
+        assertThatThrownBy(() -> lazy.loadFromString("tagged: !!int text\n")).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void saveEmitsSectionsDirectly() throws Exception {
+        String contents = "# header\n\n# block\nsection: # inline\n  empty: {}\n  list: # list\n    - a\n    - 1\n"
+                + "  map:\n    key: value\n  text: 'true' # text\nnumber: 1.5\n# footer\n";
+        YamlConfiguration configuration = new YamlConfiguration();
+        configuration.loadFromString(contents);
+        assertThat(configuration.saveToString()).isEqualTo(contents);
+
+        List<Integer> shared = new ArrayList<>(List.of(1));
+        configuration.set("aliases", new ArrayList<>(List.of(shared, shared)));
+        assertThat(configuration.saveToString()).endsWith("number: 1.5\naliases:\n- &id001\n  - 1\n- *id001\n# footer\n");
+
+        YamlConfiguration empty = new YamlConfiguration();
+        assertThat(empty.saveToString()).isEqualTo("");
+        empty.options().setHeader(List.of("header"));
+        assertThat(empty.saveToString()).isEqualTo("# header\n\n{}\n");
+    }
+
+    @Test
+    void cacheSectionsReusesUnchangedSections() throws Exception {
+        String contents = "# header\n\nfirst: # inline\n  list:\n  - a\n  nested:\n    value: 1\nsecond:\n  value: 2\nnumber: 3\n";
+        YamlConfiguration configuration = new YamlConfiguration();
+        configuration.options().cacheSections(true);
+        configuration.loadFromString(contents);
+        assertThat(configuration.saveToString()).isEqualTo(contents);
+        assertThat(configuration.saveToString()).isEqualTo(contents);
+
+        configuration.set("first.nested.value", 4);
+        configuration.setComments("second", List.of("comment"));
+        assertThat(configuration.saveToString()).isEqualTo("# header\n\nfirst: # inline\n  list:\n  - a\n  nested:\n    value: 4\n"
+                + "# comment\nsecond:\n  value: 2\nnumber: 3\n");
+
+        // values changed in place are not noticed until they are set again
+        configuration.getList("first.list").clear();
+        assertThat(configuration.saveToString()).contains("  list:\n  - a\n");
+        configuration.set("first.list", List.of());
+        assertThat(configuration.saveToString()).contains("  list: []\n");
+    }
+
+    @Test
+    void patchSavesKeepLoadedText() throws Exception {
+        String contents = "# header\n\nname: 'server'   # side\nsection:\n    flag:   off\n    list: [1, 2]\nport: 25565\n";
+        YamlConfiguration configuration = new YamlConfiguration();
+        configuration.options().patchSaves(true);
+        configuration.loadFromString(contents);
+        assertThat(configuration.saveToString()).isEqualTo(contents);
+
+        configuration.set("section.flag", true);
+        configuration.set("name", "ä: b");
+        assertThat(configuration.saveToString())
+                .isEqualTo("# header\n\nname: 'ä: b'   # side\nsection:\n    flag:   true\n    list: [1, 2]\nport: 25565\n");
+        configuration.set("port", 25566);
+        assertThat(configuration.saveToString())
+                .isEqualTo("# header\n\nname: 'ä: b'   # side\nsection:\n    flag:   true\n    list: [1, 2]\nport: 25566\n");
+
+        configuration.set("section.added", 1);
+        assertThat(configuration.saveToString()).isEqualTo("# header\n\nname: 'ä: b' # side\nsection:\n  flag: true\n"
+                + "  list:\n  - 1\n  - 2\n  added: 1\nport: 25566\n");
+
+        // copied defaults are saved even though no loaded value changed
+        YamlConfiguration copying = new YamlConfiguration();
+        copying.options().patchSaves(true);
+        copying.loadFromString("a: 1\nsec:\n  b: 2\n");
+        MemoryConfiguration defaults = new MemoryConfiguration();
+        defaults.set("def", 5);
+        copying.setDefaults(defaults);
+        copying.options().copyDefaults(true);
+        assertThat(copying.saveToString()).contains("def: 5\n");
+    }
+
+    @Test
+    void sharesEnginesBetweenConfigurations() throws Exception {
+        YamlConfiguration.warmUp();
+        String contents = "first:\n  value: 1\n  list:\n  - a\n  - b\nsecond:\n  value: 2\n";
+        YamlConfiguration lazy = new YamlConfiguration();
+        lazy.options().lazySections(true).lazyScalars(true);
+        lazy.loadFromString(contents);
+        YamlConfiguration narrow = new YamlConfiguration();
+        narrow.options().indent(4).parseComments(false);
+        narrow.loadFromString("# header\n\n# comment\nkey: value\n");
+
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int round = 0; round < 200; round++) {
+                        YamlConfiguration configuration = new YamlConfiguration();
+                        configuration.loadFromString(contents);
+                        assertThat(configuration.saveToString()).isEqualTo(contents);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        assertThat(lazy.getInt("second.value")).isEqualTo(2);
+        assertThat(lazy.saveToString()).isEqualTo(contents);
+        assertThat(narrow.saveToString()).isEqualTo("key: value\n");
+        List<Integer> shared = new ArrayList<>(List.of(1, 2));
+        for (int i = 0; i < 2; i++) {
+            YamlConfiguration aliased = new YamlConfiguration();
+            aliased.set("list", new ArrayList<>(List.of(shared, shared)));
+            assertThat(aliased.saveToString()).isEqualTo("list:\n- &id001\n  - 1\n  - 2\n- *id001\n");
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(failures.isEmpty()).isTrue();
+    }
+
+    @Test
+    void resolverMatchesDefaultResolver() {
+        String[] parts = {"0", "1", "5", "7", "9", "00", "_", "-", "+", ".", ":", "e", "E", "x", "b", "a", "F",
+                "inf", "Inf", "nan", "NAN", "T", "t", " ", "\t", "Z", "2001-12-14", "2001-1-4", "21:59:43", "1:2",
+                "true", "Off", "null", "NULL", "n", "~", "<<", "!", "&", "*", "0x", "0b", "٠"};
+        Resolver expected = new Resolver();
+        Resolver actual = new YamlResolver();
+        Random random = new Random(0);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder value = new StringBuilder();
+            for (int count = random.nextInt(7); count > 0; count--) {
+                value.append(parts[random.nextInt(parts.length)]);
+            }
+            String scalar = value.toString();
+            assertThat(actual.resolve(NodeId.scalar, scalar, true)).as(scalar).isEqualTo(expected.resolve(NodeId.scalar, scalar, true));
+        }
+        assertThat(actual.resolve(NodeId.scalar, "1".repeat(1025), true)).isEqualTo(Tag.STR);
+        assertThat(actual.resolve(NodeId.scalar, "true", false)).isEqualTo(Tag.STR);
+    }
+
     class Config extends Configuration {
 
         public Config(String version, @NotNull Logger logger, @NotNull Path path) {